@@ -0,0 +1,438 @@
+package com.example.mobigait.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mobigait.model.GaitData;
+import com.example.mobigait.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs every migration in {@link Migrations} against a real SQLite database.
+ * Old versions are built by hand: the version 2 or 3 tables from the entities of that
+ * release, then the production migrations up to the version under test. Every test ends
+ * by opening the database with Room, which migrates it to the latest version and
+ * validates each table against the compiled entities.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    // The oldest supported release: steps and weights only
+    private static final String[] VERSION_2_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `steps` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`timestamp` INTEGER NOT NULL, `stepCount` INTEGER NOT NULL, `distance` REAL NOT NULL, " +
+                    "`calories` REAL NOT NULL, `duration` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `weights` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`timestamp` INTEGER NOT NULL, `weight` REAL NOT NULL)"
+    };
+
+    private static final String[] VERSION_3_SCHEMA = {
+            VERSION_2_SCHEMA[0],
+            VERSION_2_SCHEMA[1],
+            "CREATE TABLE IF NOT EXISTS `gait_data` (`timestamp` INTEGER NOT NULL, `status` TEXT, " +
+                    "`cadence` REAL NOT NULL, `stepVariability` REAL NOT NULL, `symmetryIndex` REAL NOT NULL, " +
+                    "`stepLength` REAL NOT NULL, PRIMARY KEY(`timestamp`))"
+    };
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void migrate2To3_createsGaitTableRoomExpects() {
+        SupportSQLiteDatabase db = openDatabase(2, 2, VERSION_2_SCHEMA);
+        db.close();
+
+        db = openDatabase(3);
+        List<String> columns = columnNames(db, "gait_data");
+        assertTrue(columns.contains("stepVariability"));
+        assertTrue(columns.contains("symmetryIndex"));
+        assertTrue(columns.contains("stepLength"));
+        assertFalse(columns.contains("step_variability"));
+
+        // status is nullable, as in GaitData
+        ContentValues gait = new ContentValues();
+        gait.put("timestamp", 1700000000000L);
+        gait.putNull("status");
+        gait.put("cadence", 105f);
+        gait.put("stepVariability", 40.0);
+        gait.put("symmetryIndex", 5.0);
+        gait.put("stepLength", 0.5f);
+        assertNotEquals(-1, db.insert("gait_data", SQLiteDatabase.CONFLICT_NONE, gait));
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrateAll_fromVersion2KeepsHistory() {
+        long timestamp = 1700000000000L;
+
+        SupportSQLiteDatabase db = openDatabase(2, 2, VERSION_2_SCHEMA);
+        insertStep(db, timestamp, 4321);
+        insertWeight(db, timestamp, 72.5f);
+        db.close();
+
+        AppDatabase appDatabase = openRoom();
+        try {
+            assertEquals(4321, appDatabase.stepDao().getStepForDayEpochSync(
+                    DateUtils.toDayEpoch(timestamp)).getStepCount());
+            assertEquals(1, appDatabase.weightDao().getAllWeightsSync().size());
+
+            // The gait table created by 2 -> 3 takes rows through the DAO
+            appDatabase.gaitDao().insert(new GaitData(timestamp, "Normal", 105f, 40.0, 5.0, 0.5f));
+            assertEquals(1, appDatabase.gaitDao().countGaitDataSync());
+        } finally {
+            appDatabase.close();
+        }
+    }
+
+    @Test
+    public void migrate3To4_keysStepsByDayAndKeepsOneRowPerDay() {
+        long morning = 1700000000000L;
+        long evening = morning + 6 * 60 * 60 * 1000;
+        long nextDay = morning + DateUtils.DAY_MS;
+
+        SupportSQLiteDatabase db = openDatabase(3);
+        insertStep(db, morning, 1200);
+        insertStep(db, evening, 5400);
+        insertStep(db, nextDay, 300);
+        db.close();
+
+        db = openDatabase(4);
+        try (Cursor cursor = db.query("SELECT dayEpoch, stepCount FROM steps ORDER BY dayEpoch")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(DateUtils.toDayEpoch(morning), cursor.getLong(0));
+            assertEquals(5400, cursor.getInt(1));
+            cursor.moveToNext();
+            assertEquals(DateUtils.toDayEpoch(nextDay), cursor.getLong(0));
+            assertEquals(300, cursor.getInt(1));
+        }
+        assertTrue(hasIndex(db, "index_steps_dayEpoch"));
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate4To5_addsTimestampIndexes() {
+        openDatabase(4).close();
+
+        SupportSQLiteDatabase db = openDatabase(5);
+        assertTrue(hasIndex(db, "index_steps_timestamp_stepCount"));
+        assertTrue(hasIndex(db, "index_weights_timestamp"));
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate5To6_backfillsRollups() {
+        long day = DateUtils.toDayEpoch(1700000000000L);
+
+        SupportSQLiteDatabase db = openDatabase(5);
+        insertStep(db, day, 1700000000000L, 4000);
+        insertStep(db, day + 1, 1700000000000L + DateUtils.DAY_MS, 6000);
+        db.close();
+
+        db = openDatabase(6);
+        try (Cursor cursor = db.query("SELECT dayEpoch, stepCount FROM daily_summary ORDER BY dayEpoch")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(day, cursor.getLong(0));
+            assertEquals(4000, cursor.getInt(1));
+            cursor.moveToNext();
+            assertEquals(day + 1, cursor.getLong(0));
+            assertEquals(6000, cursor.getInt(1));
+        }
+        try (Cursor cursor = db.query("SELECT SUM(totalSteps), SUM(activeDays) FROM weekly_summary")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(10000, cursor.getLong(0));
+            assertEquals(2, cursor.getInt(1));
+        }
+        try (Cursor cursor = db.query("SELECT SUM(totalSteps) FROM monthly_summary")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(10000, cursor.getLong(0));
+        }
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate6To7_addsRawSessionIndex() {
+        openDatabase(6).close();
+
+        SupportSQLiteDatabase db = openDatabase(7);
+        ContentValues session = new ContentValues();
+        session.put("startTime", 1700000000000L);
+        session.put("endTime", 0L);
+        session.put("fileName", "session_1700000000000.imu");
+        session.put("sampleCount", 0L);
+        assertNotEquals(-1, db.insert("raw_sessions", SQLiteDatabase.CONFLICT_NONE, session));
+        assertTrue(hasIndex(db, "index_raw_sessions_startTime"));
+        assertTrue(hasIndex(db, "index_raw_sessions_fileName"));
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate7To8_addsSpectralGaitColumns() {
+        SupportSQLiteDatabase db = openDatabase(7);
+        insertGait(db, 1700000000000L, 105f);
+        db.close();
+
+        db = openDatabase(8);
+        try (Cursor cursor = db.query("SELECT cadence, dominantFrequency, harmonicRatio, " +
+                "spectralRegularity FROM gait_data")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(105f, cursor.getFloat(0), 0f);
+            assertEquals(0f, cursor.getFloat(1), 0f);
+            assertEquals(0f, cursor.getFloat(2), 0f);
+            assertEquals(0f, cursor.getFloat(3), 0f);
+        }
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate8To9_addsRegularityColumns() {
+        SupportSQLiteDatabase db = openDatabase(8);
+        insertGait(db, 1700000000000L, 105f);
+        ContentValues spectral = new ContentValues();
+        spectral.put("dominantFrequency", 1.75f);
+        db.update("gait_data", SQLiteDatabase.CONFLICT_NONE, spectral, null, null);
+        db.close();
+
+        db = openDatabase(9);
+        try (Cursor cursor = db.query("SELECT dominantFrequency, stepRegularity, strideRegularity FROM gait_data")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1.75f, cursor.getFloat(0), 0f);
+            assertEquals(0f, cursor.getFloat(1), 0f);
+            assertEquals(0f, cursor.getFloat(2), 0f);
+        }
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate9To10_dropsDailyCopyAndKeysWeeksByMonday() {
+        long day = DateUtils.toDayEpoch(1700000000000L);
+        long monday = DateUtils.weekStartDayEpoch(day);
+
+        SupportSQLiteDatabase db = openDatabase(9);
+        insertStep(db, monday, 1700000000000L, 4000);
+        insertStep(db, monday + 6, 1700000000000L + 6 * DateUtils.DAY_MS, 6000);
+        insertStep(db, monday + 7, 1700000000000L + 7 * DateUtils.DAY_MS, 500);
+        db.close();
+
+        db = openDatabase(10);
+        assertTrue(columnNames(db, "daily_summary").isEmpty());
+        try (Cursor cursor = db.query("SELECT weekStartDay, totalSteps, activeDays FROM weekly_summary " +
+                "ORDER BY weekStartDay")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(monday, cursor.getLong(0));
+            assertEquals(10000, cursor.getLong(1));
+            assertEquals(2, cursor.getInt(2));
+            cursor.moveToNext();
+            assertEquals(monday + 7, cursor.getLong(0));
+            assertEquals(500, cursor.getLong(1));
+        }
+        // 13 to 20 November 2023, all in one month
+        try (Cursor cursor = db.query("SELECT totalSteps, activeDays FROM monthly_summary WHERE monthKey = ?",
+                new Object[]{DateUtils.monthKey(monday)})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(10500, cursor.getLong(0));
+            assertEquals(3, cursor.getInt(1));
+        }
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrate9To10_createsRollupsMissingFromVersion9() {
+        long day = DateUtils.toDayEpoch(1700000000000L);
+
+        // Some development builds reached version 9 with only daily_summary
+        SupportSQLiteDatabase db = openDatabase(9);
+        db.execSQL("DROP TABLE weekly_summary");
+        db.execSQL("DROP TABLE monthly_summary");
+        insertStep(db, day, 1700000000000L, 4000);
+        db.close();
+
+        db = openDatabase(10);
+        try (Cursor cursor = db.query("SELECT weekStartDay, totalSteps FROM weekly_summary")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(DateUtils.weekStartDayEpoch(day), cursor.getLong(0));
+            assertEquals(4000, cursor.getLong(1));
+        }
+        try (Cursor cursor = db.query("SELECT monthKey, totalSteps FROM monthly_summary")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(DateUtils.monthKey(day), cursor.getInt(0));
+            assertEquals(4000, cursor.getLong(1));
+        }
+        db.close();
+
+        assertOpensWithRoom();
+    }
+
+    @Test
+    public void migrateAll_fromVersion3KeepsHistory() {
+        long timestamp = 1700000000000L;
+
+        SupportSQLiteDatabase db = openDatabase(3);
+        insertStep(db, timestamp, 4321);
+        insertWeight(db, timestamp, 72.5f);
+        db.close();
+
+        AppDatabase appDatabase = openRoom();
+        try {
+            assertEquals(4321, appDatabase.stepDao().getStepForDayEpochSync(
+                    DateUtils.toDayEpoch(timestamp)).getStepCount());
+            assertEquals(1, appDatabase.weightDao().getAllWeightsSync().size());
+        } finally {
+            appDatabase.close();
+        }
+    }
+
+    // A database at the given version, created from the version 3 tables if it doesn't exist yet
+    private SupportSQLiteDatabase openDatabase(int version) {
+        return openDatabase(version, 3, VERSION_3_SCHEMA);
+    }
+
+    /**
+     * Open the test database at {@code version}. A new database is created with {@code schema}
+     * (the tables of {@code schemaVersion}) and brought up to {@code version} with the production
+     * migrations; an existing one is upgraded with them.
+     */
+    private SupportSQLiteDatabase openDatabase(int version, int schemaVersion, String[] schema) {
+        SupportSQLiteOpenHelper.Configuration configuration = SupportSQLiteOpenHelper.Configuration
+                .builder(context)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(version) {
+                    @Override
+                    public void onCreate(SupportSQLiteDatabase db) {
+                        for (String statement : schema) {
+                            db.execSQL(statement);
+                        }
+                        migrate(db, schemaVersion, version);
+                    }
+
+                    @Override
+                    public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                        migrate(db, oldVersion, newVersion);
+                    }
+                })
+                .build();
+        return new FrameworkSQLiteOpenHelperFactory().create(configuration).getWritableDatabase();
+    }
+
+    private static void migrate(SupportSQLiteDatabase db, int fromVersion, int toVersion) {
+        for (Migration migration : Migrations.ALL) {
+            if (migration.startVersion >= fromVersion && migration.endVersion <= toVersion) {
+                migration.migrate(db);
+            }
+        }
+    }
+
+    private AppDatabase openRoom() {
+        return Room.databaseBuilder(context, AppDatabase.class, TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .build();
+    }
+
+    // Room runs the remaining migrations and validates every table when the database is first used
+    private void assertOpensWithRoom() {
+        AppDatabase appDatabase = openRoom();
+        try {
+            appDatabase.getOpenHelper().getWritableDatabase();
+        } finally {
+            appDatabase.close();
+        }
+    }
+
+    private void insertStep(SupportSQLiteDatabase db, long timestamp, int stepCount) {
+        ContentValues values = new ContentValues();
+        values.put("timestamp", timestamp);
+        values.put("stepCount", stepCount);
+        values.put("distance", stepCount * 0.0007);
+        values.put("calories", stepCount * 0.05);
+        values.put("duration", stepCount * 600L);
+        db.insert("steps", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private void insertStep(SupportSQLiteDatabase db, long dayEpoch, long timestamp, int stepCount) {
+        ContentValues values = new ContentValues();
+        values.put("dayEpoch", dayEpoch);
+        values.put("timestamp", timestamp);
+        values.put("stepCount", stepCount);
+        values.put("distance", stepCount * 0.0007);
+        values.put("calories", stepCount * 0.05);
+        values.put("duration", stepCount * 600L);
+        db.insert("steps", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private void insertWeight(SupportSQLiteDatabase db, long timestamp, float weight) {
+        ContentValues values = new ContentValues();
+        values.put("timestamp", timestamp);
+        values.put("weight", weight);
+        db.insert("weights", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private void insertGait(SupportSQLiteDatabase db, long timestamp, float cadence) {
+        ContentValues values = new ContentValues();
+        values.put("timestamp", timestamp);
+        values.put("status", "Normal");
+        values.put("cadence", cadence);
+        values.put("stepVariability", 40.0);
+        values.put("symmetryIndex", 5.0);
+        values.put("stepLength", 0.5f);
+        db.insert("gait_data", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private boolean hasIndex(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new Object[]{name})) {
+            return cursor.getCount() == 1;
+        }
+    }
+
+    private List<String> columnNames(SupportSQLiteDatabase db, String table) {
+        List<String> names = new ArrayList<>();
+        try (Cursor cursor = db.query("PRAGMA table_info(`" + table + "`)")) {
+            int nameColumn = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(nameColumn));
+            }
+        }
+        return names;
+    }
+}
@@ -15,6 +15,9 @@ public interface GaitDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(GaitData gaitData);
 
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<GaitData> gaitData);
+
     @Query("SELECT * FROM gait_data ORDER BY timestamp DESC LIMIT 1")
     LiveData<GaitData> getLatestGaitData();
 
@@ -24,6 +27,13 @@ public interface GaitDao {
     @Query("SELECT * FROM gait_data ORDER BY timestamp DESC LIMIT :limit")
     LiveData<List<GaitData>> getRecentGaitData(int limit);
 
+    // Keyset page; timestamp is the primary key so it is unique on its own
+    @Query("SELECT * FROM gait_data WHERE timestamp > :afterTimestamp ORDER BY timestamp ASC LIMIT :limit")
+    List<GaitData> getGaitDataPageSync(long afterTimestamp, int limit);
+
+    @Query("SELECT COUNT(*) FROM gait_data")
+    int countGaitDataSync();
+
     @Query("DELETE FROM gait_data")
     void deleteAllGaitData();
 }
\ No newline at end of file
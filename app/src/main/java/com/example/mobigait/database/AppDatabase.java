@@ -5,15 +5,19 @@ import android.content.Context;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
-import androidx.room.migration.Migration;
-import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.mobigait.dao.GaitDao;
 import com.example.mobigait.model.GaitData;
+import com.example.mobigait.model.MonthlySummary;
+import com.example.mobigait.model.RawSession;
 import com.example.mobigait.model.Step;
 import com.example.mobigait.model.Weight;
+import com.example.mobigait.model.WeeklySummary;
+import com.example.mobigait.utils.AppExecutors;
 
-@Database(entities = {Step.class, Weight.class, GaitData.class}, version = 3, exportSchema = false)
+@Database(entities = {Step.class, Weight.class, GaitData.class,
+        WeeklySummary.class, MonthlySummary.class, RawSession.class},
+        version = 10, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "mobigait_db";
     private static AppDatabase instance;
@@ -21,31 +25,21 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract StepDao stepDao();
     public abstract WeightDao weightDao();
     public abstract GaitDao gaitDao();
-
-    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
-        @Override
-        public void migrate(SupportSQLiteDatabase database) {
-            // Create the gait_data table with the correct structure
-            database.execSQL("CREATE TABLE IF NOT EXISTS `gait_data` (" +
-                    "`timestamp` INTEGER NOT NULL PRIMARY KEY, " +
-                    "`status` TEXT NOT NULL, " +
-                    "`cadence` REAL NOT NULL, " +
-                    "`step_variability` REAL NOT NULL, " +
-                    "`symmetry_index` REAL NOT NULL, " +
-                    "`step_length` REAL NOT NULL)");
-        }
-    };
+    public abstract SummaryDao summaryDao();
+    public abstract RawSessionDao rawSessionDao();
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
             synchronized (AppDatabase.class) {
                 if (instance == null) {
+                    // No destructive fallback: a missing migration must fail loudly, not wipe history
                     instance = Room.databaseBuilder(
                                     context.getApplicationContext(),
                                     AppDatabase.class,
                                     DATABASE_NAME)
-                            .addMigrations(MIGRATION_2_3)
-                            .fallbackToDestructiveMigration() // In case migration fails
+                            .addMigrations(Migrations.ALL)
+                            // LiveData queries share the app's DB read lane instead of Room's own pool
+                            .setQueryExecutor(AppExecutors.getInstance().dbRead())
                             .build();
                 }
             }
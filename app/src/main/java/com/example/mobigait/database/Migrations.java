@@ -0,0 +1,173 @@
+package com.example.mobigait.database;
+
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.Calendar;
+
+/**
+ * Every schema migration for {@link AppDatabase}, one step per version.
+ * The database never falls back to destructive migration, so any change to an entity
+ * must bump the version, add its migration here and register it in {@link #ALL}.
+ * Each step is covered by MigrationTest.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Create the gait_data table with the structure Room expects for GaitData
+            database.execSQL("CREATE TABLE IF NOT EXISTS `gait_data` (" +
+                    "`timestamp` INTEGER NOT NULL, " +
+                    "`status` TEXT, " +
+                    "`cadence` REAL NOT NULL, " +
+                    "`stepVariability` REAL NOT NULL, " +
+                    "`symmetryIndex` REAL NOT NULL, " +
+                    "`stepLength` REAL NOT NULL, " +
+                    "PRIMARY KEY(`timestamp`))");
+        }
+    };
+
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Key every step row by its local day
+            database.execSQL("ALTER TABLE `steps` ADD COLUMN `dayEpoch` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE `steps` SET `dayEpoch` = " +
+                    "CAST(strftime('%s', `timestamp` / 1000, 'unixepoch', 'localtime') AS INTEGER) / 86400");
+
+            // Older versions could write several rows for one day; keep the one with the most steps
+            database.execSQL("DELETE FROM `steps` WHERE `id` NOT IN (" +
+                    "SELECT `id` FROM (SELECT `id`, MAX(`stepCount`) FROM `steps` GROUP BY `dayEpoch`))");
+
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_steps_dayEpoch` ON `steps` (`dayEpoch`)");
+        }
+    };
+
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // gait_data needs nothing: its timestamp is the INTEGER PRIMARY KEY, i.e. the rowid
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_steps_timestamp_stepCount` " +
+                    "ON `steps` (`timestamp`, `stepCount`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_weights_timestamp` ON `weights` (`timestamp`)");
+        }
+    };
+
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Rollup tables for Reports
+            database.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary` (" +
+                    "`dayEpoch` INTEGER NOT NULL, `stepCount` INTEGER NOT NULL, `distance` REAL NOT NULL, " +
+                    "`calories` REAL NOT NULL, `duration` INTEGER NOT NULL, PRIMARY KEY(`dayEpoch`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `weekly_summary` (" +
+                    "`weekStartDay` INTEGER NOT NULL, `totalSteps` INTEGER NOT NULL, " +
+                    "`totalDistance` REAL NOT NULL, `totalCalories` REAL NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, `activeDays` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`weekStartDay`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `monthly_summary` (" +
+                    "`monthKey` INTEGER NOT NULL, `totalSteps` INTEGER NOT NULL, " +
+                    "`totalDistance` REAL NOT NULL, `totalCalories` REAL NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, `activeDays` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`monthKey`))");
+
+            // Backfill from the existing history (same keys as DateUtils.weekStartDayEpoch / monthKey)
+            database.execSQL("INSERT OR REPLACE INTO `daily_summary` " +
+                    "SELECT `dayEpoch`, `stepCount`, `distance`, `calories`, `duration` FROM `steps`");
+
+            int firstDayIndex = Calendar.getInstance().getFirstDayOfWeek() - Calendar.SUNDAY;
+            database.execSQL("INSERT OR REPLACE INTO `weekly_summary` " +
+                    "SELECT `dayEpoch` - ((`dayEpoch` + 11 - " + firstDayIndex + ") % 7) AS `week`, " +
+                    "SUM(`stepCount`), SUM(`distance`), SUM(`calories`), SUM(`duration`), COUNT(*) " +
+                    "FROM `daily_summary` GROUP BY `week`");
+
+            database.execSQL("INSERT OR REPLACE INTO `monthly_summary` " +
+                    "SELECT CAST(strftime('%Y', `dayEpoch` * 86400, 'unixepoch') AS INTEGER) * 12 + " +
+                    "CAST(strftime('%m', `dayEpoch` * 86400, 'unixepoch') AS INTEGER) - 1 AS `month`, " +
+                    "SUM(`stepCount`), SUM(`distance`), SUM(`calories`), SUM(`duration`), COUNT(*) " +
+                    "FROM `daily_summary` GROUP BY `month`");
+        }
+    };
+
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Index of raw sensor recordings
+            database.execSQL("CREATE TABLE IF NOT EXISTS `raw_sessions` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `startTime` INTEGER NOT NULL, " +
+                    "`endTime` INTEGER NOT NULL, `fileName` TEXT NOT NULL, `sampleCount` INTEGER NOT NULL)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_raw_sessions_fileName` " +
+                    "ON `raw_sessions` (`fileName`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_raw_sessions_startTime` " +
+                    "ON `raw_sessions` (`startTime`)");
+        }
+    };
+
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Spectral gait features; older rows keep 0
+            database.execSQL("ALTER TABLE `gait_data` ADD COLUMN `dominantFrequency` REAL NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `gait_data` ADD COLUMN `harmonicRatio` REAL NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `gait_data` ADD COLUMN `spectralRegularity` REAL NOT NULL DEFAULT 0");
+        }
+    };
+
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Autocorrelation gait features; older rows keep 0
+            database.execSQL("ALTER TABLE `gait_data` ADD COLUMN `stepRegularity` REAL NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `gait_data` ADD COLUMN `strideRegularity` REAL NOT NULL DEFAULT 0");
+        }
+    };
+
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // steps already holds one row per day, so daily_summary was a copy of it
+            database.execSQL("DROP TABLE IF EXISTS `daily_summary`");
+
+            // Rebuild the rollups from steps. Weeks are now keyed by their Monday rather than
+            // the locale's first day of week; some development builds never created these tables.
+            database.execSQL("DROP TABLE IF EXISTS `weekly_summary`");
+            database.execSQL("DROP TABLE IF EXISTS `monthly_summary`");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `weekly_summary` (" +
+                    "`weekStartDay` INTEGER NOT NULL, `totalSteps` INTEGER NOT NULL, " +
+                    "`totalDistance` REAL NOT NULL, `totalCalories` REAL NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, `activeDays` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`weekStartDay`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `monthly_summary` (" +
+                    "`monthKey` INTEGER NOT NULL, `totalSteps` INTEGER NOT NULL, " +
+                    "`totalDistance` REAL NOT NULL, `totalCalories` REAL NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, `activeDays` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`monthKey`))");
+
+            // Same keys as DateUtils.weekStartDayEpoch / monthKey; day 0 was a Thursday
+            database.execSQL("INSERT INTO `weekly_summary` " +
+                    "SELECT `dayEpoch` - ((`dayEpoch` + 3) % 7) AS `week`, " +
+                    "SUM(`stepCount`), SUM(`distance`), SUM(`calories`), SUM(`duration`), COUNT(*) " +
+                    "FROM `steps` GROUP BY `week`");
+            database.execSQL("INSERT INTO `monthly_summary` " +
+                    "SELECT CAST(strftime('%Y', `dayEpoch` * 86400, 'unixepoch') AS INTEGER) * 12 + " +
+                    "CAST(strftime('%m', `dayEpoch` * 86400, 'unixepoch') AS INTEGER) - 1 AS `month`, " +
+                    "SUM(`stepCount`), SUM(`distance`), SUM(`calories`), SUM(`duration`), COUNT(*) " +
+                    "FROM `steps` GROUP BY `month`");
+        }
+    };
+
+    public static final Migration[] ALL = {
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+}
@@ -0,0 +1,31 @@
+package com.example.mobigait.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.example.mobigait.model.RawSession;
+
+import java.util.List;
+
+@Dao
+public interface RawSessionDao {
+    @Insert
+    long insert(RawSession session);
+
+    @Query("UPDATE raw_sessions SET endTime = :endTime, sampleCount = :sampleCount WHERE fileName = :fileName")
+    void finish(String fileName, long endTime, long sampleCount);
+
+    @Query("SELECT * FROM raw_sessions ORDER BY startTime DESC")
+    LiveData<List<RawSession>> getSessions();
+
+    @Query("SELECT * FROM raw_sessions ORDER BY startTime ASC")
+    List<RawSession> getSessionsSync();
+
+    @Query("DELETE FROM raw_sessions WHERE id = :id")
+    void delete(long id);
+
+    @Query("DELETE FROM raw_sessions")
+    void deleteAll();
+}
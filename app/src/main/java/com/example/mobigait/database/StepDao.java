@@ -5,6 +5,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.mobigait.model.Step;
@@ -19,6 +20,29 @@ public interface StepDao {
     @Update
     void update(Step step);
 
+    @Query("UPDATE steps SET stepCount = :stepCount, distance = :distance, calories = :calories, " +
+            "duration = :duration WHERE dayEpoch = :dayEpoch")
+    int updateDay(long dayEpoch, int stepCount, double distance, double calories, long duration);
+
+    @Query("INSERT OR IGNORE INTO steps (dayEpoch, timestamp, stepCount, distance, calories, duration) " +
+            "VALUES (:dayEpoch, :timestamp, :stepCount, :distance, :calories, :duration)")
+    void insertDay(long dayEpoch, long timestamp, int stepCount, double distance, double calories, long duration);
+
+    /**
+     * Write the totals for the step's day, creating the day's row if needed.
+     * SQLite only gained INSERT ... ON CONFLICT DO UPDATE in 3.24 (API 30), so this is
+     * an UPDATE followed by a conditional INSERT inside one transaction.
+     */
+    @Transaction
+    default void upsertForDay(Step step) {
+        int updated = updateDay(step.getDayEpoch(), step.getStepCount(), step.getDistance(),
+                step.getCalories(), step.getDuration());
+        if (updated == 0) {
+            insertDay(step.getDayEpoch(), step.getTimestamp(), step.getStepCount(),
+                    step.getDistance(), step.getCalories(), step.getDuration());
+        }
+    }
+
     @Query("SELECT * FROM steps WHERE timestamp BETWEEN :startTime AND :endTime ORDER BY timestamp DESC")
     LiveData<List<Step>> getStepsBetweenDates(long startTime, long endTime);
 
@@ -31,9 +55,20 @@ public interface StepDao {
     @Query("SELECT * FROM steps WHERE timestamp BETWEEN :startTime AND :endTime LIMIT 1")
     Step getStepForDaySync(long startTime, long endTime);
 
-    // Add this method to get all steps synchronously
-    @Query("SELECT * FROM steps ORDER BY timestamp ASC")
-    List<Step> getAllStepsSync();
+    @Query("SELECT * FROM steps WHERE dayEpoch = :dayEpoch")
+    Step getStepForDayEpochSync(long dayEpoch);
+
+    /**
+     * One page of steps in (timestamp, id) order, starting after the given key.
+     * Written without row values so it runs on SQLite 3.9 and still seeks on the timestamp index.
+     */
+    @Query("SELECT * FROM steps WHERE timestamp >= :afterTimestamp " +
+            "AND NOT (timestamp = :afterTimestamp AND id <= :afterId) " +
+            "ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    List<Step> getStepsPageSync(long afterTimestamp, int afterId, int limit);
+
+    @Query("SELECT COUNT(*) FROM steps")
+    int countStepsSync();
 
     // Add this method if you need to delete all steps
     @Query("DELETE FROM steps")
@@ -0,0 +1,69 @@
+package com.example.mobigait.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.mobigait.model.DailySummary;
+import com.example.mobigait.model.MonthlySummary;
+import com.example.mobigait.model.WeeklySummary;
+import com.example.mobigait.utils.DateUtils;
+
+import java.util.List;
+
+/**
+ * Queries behind the Reports screen: the per-day series, read straight from steps
+ * (which hold one row per day), and the weekly and monthly rollups.
+ * A rollup is refreshed one day at a time as steps are saved, so every refresh reads
+ * at most seven and 31 step rows.
+ */
+@Dao
+public interface SummaryDao {
+    @Query("INSERT OR REPLACE INTO weekly_summary " +
+            "(weekStartDay, totalSteps, totalDistance, totalCalories, totalDuration, activeDays) " +
+            "SELECT :weekStartDay, COALESCE(SUM(stepCount), 0), COALESCE(SUM(distance), 0), " +
+            "COALESCE(SUM(calories), 0), COALESCE(SUM(duration), 0), COUNT(*) " +
+            "FROM steps WHERE dayEpoch BETWEEN :weekStartDay AND :weekStartDay + 6")
+    void refreshWeekly(long weekStartDay);
+
+    @Query("INSERT OR REPLACE INTO monthly_summary " +
+            "(monthKey, totalSteps, totalDistance, totalCalories, totalDuration, activeDays) " +
+            "SELECT :monthKey, COALESCE(SUM(stepCount), 0), COALESCE(SUM(distance), 0), " +
+            "COALESCE(SUM(calories), 0), COALESCE(SUM(duration), 0), COUNT(*) " +
+            "FROM steps WHERE dayEpoch BETWEEN :firstDay AND :lastDay")
+    void refreshMonthly(int monthKey, long firstDay, long lastDay);
+
+    /**
+     * Bring the week and month rollups up to date for a day whose step row has changed.
+     */
+    @Transaction
+    default void refreshForDay(long dayEpoch) {
+        refreshWeekly(DateUtils.weekStartDayEpoch(dayEpoch));
+        int monthKey = DateUtils.monthKey(dayEpoch);
+        long[] monthDays = DateUtils.monthDayRange(monthKey);
+        refreshMonthly(monthKey, monthDays[0], monthDays[1]);
+    }
+
+    @Query("SELECT dayEpoch, stepCount, distance, calories, duration FROM steps " +
+            "WHERE dayEpoch BETWEEN :firstDay AND :lastDay ORDER BY dayEpoch ASC")
+    LiveData<List<DailySummary>> getDailySummaries(long firstDay, long lastDay);
+
+    @Query("SELECT * FROM weekly_summary WHERE weekStartDay = :weekStartDay")
+    LiveData<WeeklySummary> getWeeklySummary(long weekStartDay);
+
+    @Query("SELECT * FROM monthly_summary WHERE monthKey = :monthKey")
+    LiveData<MonthlySummary> getMonthlySummary(int monthKey);
+
+    @Query("DELETE FROM weekly_summary")
+    void deleteAllWeekly();
+
+    @Query("DELETE FROM monthly_summary")
+    void deleteAllMonthly();
+
+    @Transaction
+    default void deleteAll() {
+        deleteAllWeekly();
+        deleteAllMonthly();
+    }
+}
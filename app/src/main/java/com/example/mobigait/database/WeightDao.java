@@ -28,6 +28,20 @@ public interface WeightDao {
     @Query("SELECT * FROM weights ORDER BY timestamp ASC")
     List<Weight> getAllWeightsSync();
 
+    // Keyset page in (timestamp, id) order, see StepDao.getStepsPageSync
+    @Query("SELECT * FROM weights WHERE timestamp >= :afterTimestamp " +
+            "AND NOT (timestamp = :afterTimestamp AND id <= :afterId) " +
+            "ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    List<Weight> getWeightsPageSync(long afterTimestamp, int afterId, int limit);
+
+    // Skips weights already recorded at the same time, so importing twice adds nothing
+    @Query("INSERT INTO weights (timestamp, weight) SELECT :timestamp, :weight " +
+            "WHERE NOT EXISTS (SELECT 1 FROM weights WHERE timestamp = :timestamp)")
+    void insertIfAbsent(long timestamp, float weight);
+
+    @Query("SELECT COUNT(*) FROM weights")
+    int countWeightsSync();
+
     @Query("DELETE FROM weights")
     void deleteAllWeights();
 }
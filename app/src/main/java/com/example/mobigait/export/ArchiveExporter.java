@@ -0,0 +1,189 @@
+package com.example.mobigait.export;
+
+import com.example.mobigait.model.GaitData;
+import com.example.mobigait.model.Step;
+import com.example.mobigait.model.Weight;
+import com.example.mobigait.repository.GaitRepository;
+import com.example.mobigait.repository.StepRepository;
+import com.example.mobigait.repository.WeightRepository;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes steps, weights and gait data to a binary archive (see {@link ArchiveFormat}).
+ * Each database page becomes one columnar block, so memory use stays bounded.
+ * Call {@link #export} from a background thread; {@link #cancel()} may be called from any thread.
+ */
+public class ArchiveExporter {
+    private final StepRepository stepRepository;
+    private final WeightRepository weightRepository;
+    private final GaitRepository gaitRepository;
+    private volatile boolean cancelled = false;
+
+    private ArchiveOutput out;
+    private long rowsWritten;
+    private long totalRows;
+
+    public ArchiveExporter(StepRepository stepRepository, WeightRepository weightRepository,
+                           GaitRepository gaitRepository) {
+        this.stepRepository = stepRepository;
+        this.weightRepository = weightRepository;
+        this.gaitRepository = gaitRepository;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Export everything to {@code file}. A partial file is deleted if the export is
+     * cancelled or fails.
+     *
+     * @return true if the export finished, false if it was cancelled
+     */
+    public boolean export(File file, ProgressListener listener) throws IOException {
+        boolean completed = false;
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            out = new ArchiveOutput(channel);
+            rowsWritten = 0;
+            totalRows = (long) stepRepository.countStepsSync() + weightRepository.countWeightsSync()
+                    + gaitRepository.countGaitDataSync();
+
+            out.writeInt(ArchiveFormat.MAGIC);
+            out.writeShort(ArchiveFormat.VERSION);
+            out.writeShort((short) 0); // flags
+            out.writeLong(System.currentTimeMillis());
+
+            completed = writeSteps(listener) && writeWeights(listener) && writeGaitData(listener);
+            if (completed) {
+                out.writeByte(ArchiveFormat.TAG_END);
+                out.flush();
+                channel.force(false);
+            }
+        } finally {
+            out = null;
+            stream.close();
+            if (!completed) {
+                file.delete();
+            }
+        }
+        return completed;
+    }
+
+    private boolean writeSteps(ProgressListener listener) throws IOException {
+        out.writeByte(ArchiveFormat.TAG_STEPS);
+        long previousTimestamp = 0;
+        long afterTimestamp = Long.MIN_VALUE;
+        int afterId = 0;
+        while (!cancelled) {
+            List<Step> page = stepRepository.getStepsPageSync(afterTimestamp, afterId, ArchiveFormat.BLOCK_ROWS);
+            if (page.isEmpty()) break;
+
+            out.writeVarLong(page.size());
+            for (Step step : page) {
+                out.writeSignedVarLong(step.getTimestamp() - previousTimestamp);
+                previousTimestamp = step.getTimestamp();
+            }
+            for (Step step : page) out.writeVarLong(step.getStepCount());
+            for (Step step : page) out.writeDouble(step.getDistance());
+            for (Step step : page) out.writeDouble(step.getCalories());
+            for (Step step : page) out.writeVarLong(step.getDuration());
+            reportProgress(page.size(), listener);
+
+            Step last = page.get(page.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+            if (page.size() < ArchiveFormat.BLOCK_ROWS) break;
+        }
+        out.writeVarLong(0);
+        return !cancelled;
+    }
+
+    private boolean writeWeights(ProgressListener listener) throws IOException {
+        out.writeByte(ArchiveFormat.TAG_WEIGHTS);
+        long previousTimestamp = 0;
+        long afterTimestamp = Long.MIN_VALUE;
+        int afterId = 0;
+        while (!cancelled) {
+            List<Weight> page = weightRepository.getWeightsPageSync(afterTimestamp, afterId, ArchiveFormat.BLOCK_ROWS);
+            if (page.isEmpty()) break;
+
+            out.writeVarLong(page.size());
+            for (Weight weight : page) {
+                out.writeSignedVarLong(weight.getTimestamp() - previousTimestamp);
+                previousTimestamp = weight.getTimestamp();
+            }
+            for (Weight weight : page) out.writeFloat(weight.getWeight());
+            reportProgress(page.size(), listener);
+
+            Weight last = page.get(page.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+            if (page.size() < ArchiveFormat.BLOCK_ROWS) break;
+        }
+        out.writeVarLong(0);
+        return !cancelled;
+    }
+
+    private boolean writeGaitData(ProgressListener listener) throws IOException {
+        out.writeByte(ArchiveFormat.TAG_GAIT);
+        Map<String, Integer> statusTable = new HashMap<>();
+        long previousTimestamp = 0;
+        long afterTimestamp = Long.MIN_VALUE;
+        while (!cancelled) {
+            List<GaitData> page = gaitRepository.getGaitDataPageSync(afterTimestamp, ArchiveFormat.BLOCK_ROWS);
+            if (page.isEmpty()) break;
+
+            out.writeVarLong(page.size());
+            for (GaitData data : page) {
+                out.writeSignedVarLong(data.getTimestamp() - previousTimestamp);
+                previousTimestamp = data.getTimestamp();
+            }
+            for (GaitData data : page) writeInterned(data.getStatus(), statusTable);
+            for (GaitData data : page) out.writeFloat(data.getCadence());
+            for (GaitData data : page) out.writeDouble(data.getStepVariability());
+            for (GaitData data : page) out.writeDouble(data.getSymmetryIndex());
+            for (GaitData data : page) out.writeFloat(data.getStepLength());
+            for (GaitData data : page) out.writeFloat(data.getDominantFrequency());
+            for (GaitData data : page) out.writeFloat(data.getHarmonicRatio());
+            for (GaitData data : page) out.writeFloat(data.getSpectralRegularity());
+            for (GaitData data : page) out.writeFloat(data.getStepRegularity());
+            for (GaitData data : page) out.writeFloat(data.getStrideRegularity());
+            reportProgress(page.size(), listener);
+
+            afterTimestamp = page.get(page.size() - 1).getTimestamp();
+            if (page.size() < ArchiveFormat.BLOCK_ROWS) break;
+        }
+        out.writeVarLong(0);
+        return !cancelled;
+    }
+
+    private void writeInterned(String value, Map<String, Integer> table) throws IOException {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        Integer index = table.get(value);
+        if (index != null) {
+            out.writeVarLong(index);
+            return;
+        }
+        index = table.size() + 1;
+        table.put(value, index);
+        out.writeVarLong(index);
+        out.writeString(value);
+    }
+
+    private void reportProgress(int rows, ProgressListener listener) {
+        rowsWritten += rows;
+        if (listener != null) listener.onProgress(rowsWritten, totalRows);
+    }
+}
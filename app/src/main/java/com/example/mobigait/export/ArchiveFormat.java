@@ -0,0 +1,39 @@
+package com.example.mobigait.export;
+
+/**
+ * Layout of the MobiGait history archive (.mga).
+ *
+ * <pre>
+ * header:  magic (int "MGAR"), version (short), flags (short), createdAt (long millis)
+ * section: tag (byte), then blocks; a block is a varint row count followed by its columns;
+ *          a row count of 0 ends the section
+ * end:     tag TAG_END
+ * </pre>
+ *
+ * Fixed-width values are big-endian. Timestamps are stored as zig-zag varint deltas from
+ * the previous row of the same section (the first row is relative to 0). Strings are
+ * interned per section: varint 0 is null, n is the n-th string already seen, and
+ * (table size + 1) introduces a new string written as varint length + UTF-8 bytes.
+ * Version 2 appends the spectral gait columns (dominant frequency, harmonic ratio,
+ * spectral regularity) to each gait block, and version 3 the step and stride regularity
+ * columns; columns missing from older archives import as 0.
+ */
+public final class ArchiveFormat {
+    public static final int MAGIC = 0x4D474152; // "MGAR"
+    public static final short VERSION = 3;
+
+    public static final byte TAG_END = 0;
+    public static final byte TAG_STEPS = 1;
+    public static final byte TAG_WEIGHTS = 2;
+    public static final byte TAG_GAIT = 3;
+
+    public static final String FILE_EXTENSION = ".mga";
+    public static final String MIME_TYPE = "application/octet-stream";
+
+    // Rows per block; also the largest block a reader will accept
+    public static final int BLOCK_ROWS = 1024;
+    public static final int MAX_STRING_BYTES = 1024;
+
+    private ArchiveFormat() {
+    }
+}
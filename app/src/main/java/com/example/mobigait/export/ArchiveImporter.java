@@ -0,0 +1,241 @@
+package com.example.mobigait.export;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.example.mobigait.model.GaitData;
+import com.example.mobigait.model.Step;
+import com.example.mobigait.model.Weight;
+import com.example.mobigait.repository.GaitRepository;
+import com.example.mobigait.repository.StepRepository;
+import com.example.mobigait.repository.WeightRepository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a binary archive (see {@link ArchiveFormat}) and inserts it block by block,
+ * one database transaction per block.
+ * Blocks already inserted stay in the database if the import is cancelled or the file
+ * turns out to be damaged; importing the same archive again is harmless.
+ * Call {@link #importFrom} from a background thread; {@link #cancel()} may be called from any thread.
+ * Progress is reported as bytes read out of the file size.
+ */
+public class ArchiveImporter {
+    /**
+     * Where imported blocks go, one call per block.
+     */
+    @VisibleForTesting
+    interface Sink {
+        void importSteps(List<Step> steps);
+
+        void importWeights(List<Weight> weights);
+
+        void importGaitData(List<GaitData> gaitData);
+    }
+
+    private final Sink sink;
+    private volatile boolean cancelled = false;
+
+    // Column buffers reused for every block
+    private final long[] timestamps = new long[ArchiveFormat.BLOCK_ROWS];
+
+    private ArchiveInput in;
+    private long totalBytes;
+    private short version;
+    private int stepsImported;
+    private int weightsImported;
+    private int gaitDataImported;
+
+    public ArchiveImporter(StepRepository stepRepository, WeightRepository weightRepository,
+                           GaitRepository gaitRepository) {
+        this(new Sink() {
+            @Override
+            public void importSteps(List<Step> steps) {
+                stepRepository.importStepsSync(steps);
+            }
+
+            @Override
+            public void importWeights(List<Weight> weights) {
+                weightRepository.importWeightsSync(weights);
+            }
+
+            @Override
+            public void importGaitData(List<GaitData> gaitData) {
+                gaitRepository.importGaitDataSync(gaitData);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    ArchiveImporter(Sink sink) {
+        this.sink = sink;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Import everything from {@code channel}, which is read from its current position.
+     *
+     * @return true if the whole archive was imported, false if it was cancelled
+     * @throws IOException if the file cannot be read or is not a supported archive
+     */
+    public boolean importFrom(FileChannel channel, ProgressListener listener) throws IOException {
+        in = new ArchiveInput(channel);
+        totalBytes = channel.size() - channel.position();
+        stepsImported = 0;
+        weightsImported = 0;
+        gaitDataImported = 0;
+        try {
+            if (in.readInt() != ArchiveFormat.MAGIC) {
+                throw new IOException("Not a MobiGait archive");
+            }
+            version = in.readShort();
+            if (version < 1 || version > ArchiveFormat.VERSION) {
+                throw new IOException("Unsupported archive version " + version);
+            }
+            in.readShort(); // flags, none defined yet
+            in.readLong();  // creation time
+
+            while (!cancelled) {
+                byte tag = in.readByte();
+                switch (tag) {
+                    case ArchiveFormat.TAG_END:
+                        return true;
+                    case ArchiveFormat.TAG_STEPS:
+                        readSteps(listener);
+                        break;
+                    case ArchiveFormat.TAG_WEIGHTS:
+                        readWeights(listener);
+                        break;
+                    case ArchiveFormat.TAG_GAIT:
+                        readGaitData(listener);
+                        break;
+                    default:
+                        throw new IOException("Unknown archive section " + tag);
+                }
+            }
+            return false;
+        } finally {
+            in = null;
+        }
+    }
+
+    public int getStepsImported() {
+        return stepsImported;
+    }
+
+    public int getWeightsImported() {
+        return weightsImported;
+    }
+
+    public int getGaitDataImported() {
+        return gaitDataImported;
+    }
+
+    private void readSteps(ProgressListener listener) throws IOException {
+        long previousTimestamp = 0;
+        int rows;
+        while ((rows = readBlockSize()) > 0 && !cancelled) {
+            previousTimestamp = readTimestamps(rows, previousTimestamp);
+            List<Step> steps = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                steps.add(new Step(timestamps[i], 0, 0, 0, 0));
+            }
+            for (Step step : steps) step.setStepCount((int) in.readVarLong());
+            for (Step step : steps) step.setDistance(in.readDouble());
+            for (Step step : steps) step.setCalories(in.readDouble());
+            for (Step step : steps) step.setDuration(in.readVarLong());
+
+            sink.importSteps(steps);
+            stepsImported += rows;
+            reportProgress(listener);
+        }
+    }
+
+    private void readWeights(ProgressListener listener) throws IOException {
+        long previousTimestamp = 0;
+        int rows;
+        while ((rows = readBlockSize()) > 0 && !cancelled) {
+            previousTimestamp = readTimestamps(rows, previousTimestamp);
+            List<Weight> weights = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                weights.add(new Weight(timestamps[i], in.readFloat()));
+            }
+
+            sink.importWeights(weights);
+            weightsImported += rows;
+            reportProgress(listener);
+        }
+    }
+
+    private void readGaitData(ProgressListener listener) throws IOException {
+        List<String> statusTable = new ArrayList<>();
+        long previousTimestamp = 0;
+        int rows;
+        while ((rows = readBlockSize()) > 0 && !cancelled) {
+            previousTimestamp = readTimestamps(rows, previousTimestamp);
+            List<GaitData> gaitData = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                gaitData.add(new GaitData(timestamps[i], readInterned(statusTable), 0, 0, 0, 0));
+            }
+            for (GaitData data : gaitData) data.setCadence(in.readFloat());
+            for (GaitData data : gaitData) data.setStepVariability(in.readDouble());
+            for (GaitData data : gaitData) data.setSymmetryIndex(in.readDouble());
+            for (GaitData data : gaitData) data.setStepLength(in.readFloat());
+            if (version >= 2) {
+                for (GaitData data : gaitData) data.setDominantFrequency(in.readFloat());
+                for (GaitData data : gaitData) data.setHarmonicRatio(in.readFloat());
+                for (GaitData data : gaitData) data.setSpectralRegularity(in.readFloat());
+            }
+            if (version >= 3) {
+                for (GaitData data : gaitData) data.setStepRegularity(in.readFloat());
+                for (GaitData data : gaitData) data.setStrideRegularity(in.readFloat());
+            }
+
+            sink.importGaitData(gaitData);
+            gaitDataImported += rows;
+            reportProgress(listener);
+        }
+    }
+
+    private int readBlockSize() throws IOException {
+        long rows = in.readVarLong();
+        if (rows < 0 || rows > ArchiveFormat.BLOCK_ROWS) {
+            throw new IOException("Corrupt archive: block of " + rows + " rows");
+        }
+        return (int) rows;
+    }
+
+    // Decodes the delta column into timestamps and returns the last one
+    private long readTimestamps(int rows, long previousTimestamp) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            previousTimestamp += in.readSignedVarLong();
+            timestamps[i] = previousTimestamp;
+        }
+        return previousTimestamp;
+    }
+
+    private String readInterned(List<String> table) throws IOException {
+        long index = in.readVarLong();
+        if (index == 0) {
+            return null;
+        }
+        if (index <= table.size()) {
+            return table.get((int) index - 1);
+        }
+        if (index != table.size() + 1) {
+            throw new IOException("Corrupt archive: string index " + index);
+        }
+        String value = in.readString();
+        table.add(value);
+        return value;
+    }
+
+    private void reportProgress(ProgressListener listener) {
+        if (listener != null) listener.onProgress(in.getBytesRead(), totalBytes);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.mobigait.export;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered primitive reader over a channel, the counterpart of {@link ArchiveOutput}.
+ */
+public class ArchiveInput {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] stringBytes = new byte[ArchiveFormat.MAX_STRING_BYTES];
+    private long bytesRead = 0;
+
+    public ArchiveInput(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip(); // start empty
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    public short readShort() throws IOException {
+        require(2);
+        return buffer.getShort();
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    public float readFloat() throws IOException {
+        require(4);
+        return buffer.getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > ArchiveFormat.MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        int n = (int) length;
+        require(n);
+        buffer.get(stringBytes, 0, n);
+        return new String(stringBytes, 0, n, StandardCharsets.UTF_8);
+    }
+
+    // Bytes consumed by the caller so far
+    public long getBytesRead() {
+        return bytesRead - buffer.remaining();
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int n = channel.read(buffer);
+            if (n < 0) {
+                buffer.flip();
+                throw new EOFException("Unexpected end of archive");
+            }
+            bytesRead += n;
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.mobigait.export;
+
+import com.example.mobigait.model.Step;
+import com.example.mobigait.model.Weight;
+import com.example.mobigait.repository.StepRepository;
+import com.example.mobigait.repository.WeightRepository;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Writes steps and weights to a CSV file a page at a time, so memory use does not
+ * grow with the size of the history.
+ * Rows are read with keyset pagination on (timestamp, id) and formatted into one
+ * reused buffer that is drained to a {@link FileChannel}.
+ * Call {@link #export} from a background thread; {@link #cancel()} may be called from any thread.
+ * Progress is reported after each page as data rows written out of the total.
+ */
+public class CsvExporter {
+    public static final int PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final String HEADER = "Date,Time,Steps,Distance (km),Calories,Duration (ms),Weight (kg)\n";
+
+    private final StepRepository stepRepository;
+    private final WeightRepository weightRepository;
+    private volatile boolean cancelled = false;
+
+    // Reused for every row
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(128);
+    private final Calendar calendar = Calendar.getInstance();
+
+    private FileChannel channel;
+    private long rowsWritten;
+    private long totalRows;
+
+    public CsvExporter(StepRepository stepRepository, WeightRepository weightRepository) {
+        this.stepRepository = stepRepository;
+        this.weightRepository = weightRepository;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Export everything to {@code file}. A partial file is deleted if the export is
+     * cancelled or fails.
+     *
+     * @return true if the export finished, false if it was cancelled
+     */
+    public boolean export(File file, ProgressListener listener) throws IOException {
+        boolean completed = false;
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            channel = out.getChannel();
+            rowsWritten = 0;
+            totalRows = (long) stepRepository.countStepsSync() + weightRepository.countWeightsSync();
+
+            line.setLength(0);
+            line.append(HEADER);
+            writeLine();
+
+            completed = writeSteps(listener) && writeWeights(listener);
+            if (completed) {
+                drain();
+                channel.force(false);
+            }
+        } finally {
+            channel = null;
+            out.close();
+            if (!completed) {
+                file.delete();
+            }
+        }
+        return completed;
+    }
+
+    private boolean writeSteps(ProgressListener listener) throws IOException {
+        long afterTimestamp = Long.MIN_VALUE;
+        int afterId = 0;
+        while (!cancelled) {
+            List<Step> page = stepRepository.getStepsPageSync(afterTimestamp, afterId, PAGE_SIZE);
+            for (Step step : page) {
+                line.setLength(0);
+                appendDateTime(step.getTimestamp());
+                line.append(step.getStepCount()).append(',')
+                        .append(step.getDistance()).append(',')
+                        .append(step.getCalories()).append(',')
+                        .append(step.getDuration()).append(",\n");
+                writeLine();
+            }
+            rowsWritten += page.size();
+            if (listener != null) listener.onProgress(rowsWritten, totalRows);
+
+            if (page.size() < PAGE_SIZE) return true;
+            Step last = page.get(page.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+        }
+        return false;
+    }
+
+    private boolean writeWeights(ProgressListener listener) throws IOException {
+        long afterTimestamp = Long.MIN_VALUE;
+        int afterId = 0;
+        while (!cancelled) {
+            List<Weight> page = weightRepository.getWeightsPageSync(afterTimestamp, afterId, PAGE_SIZE);
+            for (Weight weight : page) {
+                line.setLength(0);
+                appendDateTime(weight.getTimestamp());
+                // Empty columns for steps, distance, calories, duration
+                line.append(",,,,").append(weight.getWeight()).append('\n');
+                writeLine();
+            }
+            rowsWritten += page.size();
+            if (listener != null) listener.onProgress(rowsWritten, totalRows);
+
+            if (page.size() < PAGE_SIZE) return true;
+            Weight last = page.get(page.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+        }
+        return false;
+    }
+
+    // Appends "yyyy-MM-dd,HH:mm:ss," in local time
+    private void appendDateTime(long timestamp) {
+        calendar.setTimeInMillis(timestamp);
+        line.append(calendar.get(Calendar.YEAR)).append('-');
+        appendTwoDigits(calendar.get(Calendar.MONTH) + 1);
+        line.append('-');
+        appendTwoDigits(calendar.get(Calendar.DAY_OF_MONTH));
+        line.append(',');
+        appendTwoDigits(calendar.get(Calendar.HOUR_OF_DAY));
+        line.append(':');
+        appendTwoDigits(calendar.get(Calendar.MINUTE));
+        line.append(':');
+        appendTwoDigits(calendar.get(Calendar.SECOND));
+        line.append(',');
+    }
+
+    private void appendTwoDigits(int value) {
+        if (value < 10) line.append('0');
+        line.append(value);
+    }
+
+    // Every character we write is ASCII, so each char maps to one byte
+    private void writeLine() throws IOException {
+        int length = line.length();
+        if (buffer.remaining() < length) {
+            drain();
+        }
+        for (int i = 0; i < length; i++) {
+            if (!buffer.hasRemaining()) drain();
+            buffer.put((byte) line.charAt(i));
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.mobigait.export;
+
+/**
+ * Progress of an export or import, reported from the background thread doing the work.
+ */
+public interface ProgressListener {
+    void onProgress(long done, long total);
+}
@@ -0,0 +1,79 @@
+package com.example.mobigait.model;
+
+import java.util.Objects;
+
+/**
+ * Step totals for one local day, as read from the steps table for a Reports range.
+ */
+public class DailySummary {
+    private long dayEpoch;
+    private int stepCount;
+    private double distance;
+    private double calories;
+    private long duration;
+
+    public DailySummary(long dayEpoch, int stepCount, double distance, double calories, long duration) {
+        this.dayEpoch = dayEpoch;
+        this.stepCount = stepCount;
+        this.distance = distance;
+        this.calories = calories;
+        this.duration = duration;
+    }
+
+    public long getDayEpoch() {
+        return dayEpoch;
+    }
+
+    public void setDayEpoch(long dayEpoch) {
+        this.dayEpoch = dayEpoch;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public void setStepCount(int stepCount) {
+        this.stepCount = stepCount;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    public double getCalories() {
+        return calories;
+    }
+
+    public void setCalories(double calories) {
+        this.calories = calories;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailySummary that = (DailySummary) o;
+        return dayEpoch == that.dayEpoch
+                && stepCount == that.stepCount
+                && Double.compare(that.distance, distance) == 0
+                && Double.compare(that.calories, calories) == 0
+                && duration == that.duration;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dayEpoch, stepCount, distance, calories, duration);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.mobigait.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
@@ -14,6 +15,20 @@ public class GaitData {
     private double symmetryIndex;
     private float stepLength;
 
+    // Spectral features of the vertical acceleration; 0 for rows analyzed before they existed
+    @ColumnInfo(defaultValue = "0")
+    private float dominantFrequency; // Hz
+    @ColumnInfo(defaultValue = "0")
+    private float harmonicRatio;
+    @ColumnInfo(defaultValue = "0")
+    private float spectralRegularity; // 0..1
+
+    // Autocorrelation of the vertical acceleration at one step and one stride
+    @ColumnInfo(defaultValue = "0")
+    private float stepRegularity;
+    @ColumnInfo(defaultValue = "0")
+    private float strideRegularity;
+
     public GaitData(long timestamp, String status, float cadence,
                    double stepVariability, double symmetryIndex, float stepLength) {
         this.timestamp = timestamp;
@@ -71,4 +86,44 @@ public class GaitData {
     public void setStepLength(float stepLength) {
         this.stepLength = stepLength;
     }
-}
\ No newline at end of file
+
+    public float getDominantFrequency() {
+        return dominantFrequency;
+    }
+
+    public void setDominantFrequency(float dominantFrequency) {
+        this.dominantFrequency = dominantFrequency;
+    }
+
+    public float getHarmonicRatio() {
+        return harmonicRatio;
+    }
+
+    public void setHarmonicRatio(float harmonicRatio) {
+        this.harmonicRatio = harmonicRatio;
+    }
+
+    public float getSpectralRegularity() {
+        return spectralRegularity;
+    }
+
+    public void setSpectralRegularity(float spectralRegularity) {
+        this.spectralRegularity = spectralRegularity;
+    }
+
+    public float getStepRegularity() {
+        return stepRegularity;
+    }
+
+    public void setStepRegularity(float stepRegularity) {
+        this.stepRegularity = stepRegularity;
+    }
+
+    public float getStrideRegularity() {
+        return strideRegularity;
+    }
+
+    public void setStrideRegularity(float strideRegularity) {
+        this.strideRegularity = strideRegularity;
+    }
+}
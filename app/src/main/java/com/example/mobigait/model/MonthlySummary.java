@@ -0,0 +1,84 @@
+package com.example.mobigait.model;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Step totals for one calendar month, keyed by year * 12 + month (0-based).
+ * Rebuilt from the steps table whenever one of its days changes.
+ */
+@Entity(tableName = "monthly_summary")
+public class MonthlySummary implements StepTotals {
+    @PrimaryKey
+    private int monthKey;
+    private long totalSteps;
+    private double totalDistance;
+    private double totalCalories;
+    private long totalDuration;
+    private int activeDays; // days with a step record
+
+    public MonthlySummary(int monthKey, long totalSteps, double totalDistance,
+                         double totalCalories, long totalDuration, int activeDays) {
+        this.monthKey = monthKey;
+        this.totalSteps = totalSteps;
+        this.totalDistance = totalDistance;
+        this.totalCalories = totalCalories;
+        this.totalDuration = totalDuration;
+        this.activeDays = activeDays;
+    }
+
+    public int getMonthKey() {
+        return monthKey;
+    }
+
+    public void setMonthKey(int monthKey) {
+        this.monthKey = monthKey;
+    }
+
+    @Override
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    public void setTotalSteps(long totalSteps) {
+        this.totalSteps = totalSteps;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public void setTotalDistance(double totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public void setTotalCalories(double totalCalories) {
+        this.totalCalories = totalCalories;
+    }
+
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public void setTotalDuration(long totalDuration) {
+        this.totalDuration = totalDuration;
+    }
+
+    @Override
+    public int getActiveDays() {
+        return activeDays;
+    }
+
+    public void setActiveDays(int activeDays) {
+        this.activeDays = activeDays;
+    }
+
+    @Override
+    public double getAverageSteps() {
+        return activeDays > 0 ? (double) totalSteps / activeDays : 0;
+    }
+}
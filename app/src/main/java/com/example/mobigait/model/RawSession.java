@@ -0,0 +1,72 @@
+package com.example.mobigait.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Index entry for one raw sensor recording; the samples live in {@code fileName}
+ * under the app's raw_sessions directory.
+ */
+@Entity(tableName = "raw_sessions", indices = {
+        @Index(value = {"fileName"}, unique = true),
+        @Index(value = {"startTime"})
+})
+public class RawSession {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long startTime;
+    private long endTime; // 0 while recording, or if the app stopped before the session was closed
+    @NonNull
+    private String fileName;
+    private long sampleCount;
+
+    public RawSession(long startTime, long endTime, @NonNull String fileName, long sampleCount) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.fileName = fileName;
+        this.sampleCount = sampleCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    @NonNull
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(@NonNull String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.mobigait.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Everything the Reports screen shows for one time range: the per-day series and the
+ * range's weekly or monthly rollup.
+ */
+public class ReportsSnapshot {
+    private final long firstDay;
+    private final long lastDay;
+    private final List<DailySummary> days;
+    private final long totalSteps;
+    private final double averageSteps;
+    private final int goalMetDays;
+
+    private ReportsSnapshot(long firstDay, long lastDay, List<DailySummary> days,
+                            long totalSteps, double averageSteps, int goalMetDays) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.days = days;
+        this.totalSteps = totalSteps;
+        this.averageSteps = averageSteps;
+        this.goalMetDays = goalMetDays;
+    }
+
+    /**
+     * Total and average come from the rollup, which is null until the range has steps;
+     * goal days are counted from the per-day rows (one per day with steps).
+     */
+    public static ReportsSnapshot of(long firstDay, long lastDay, List<DailySummary> days,
+                                     StepTotals totals, int goalSteps) {
+        if (days == null) {
+            days = Collections.emptyList();
+        }
+
+        int goalMet = 0;
+        for (DailySummary day : days) {
+            if (day.getStepCount() >= goalSteps) {
+                goalMet++;
+            }
+        }
+        long total = totals != null ? totals.getTotalSteps() : 0;
+        double average = totals != null ? totals.getAverageSteps() : 0;
+
+        return new ReportsSnapshot(firstDay, lastDay, Collections.unmodifiableList(days),
+                total, average, goalMet);
+    }
+
+    public long getFirstDay() {
+        return firstDay;
+    }
+
+    public long getLastDay() {
+        return lastDay;
+    }
+
+    public List<DailySummary> getDays() {
+        return days;
+    }
+
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    public double getAverageSteps() {
+        return averageSteps;
+    }
+
+    public int getGoalMetDays() {
+        return goalMetDays;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReportsSnapshot that = (ReportsSnapshot) o;
+        return firstDay == that.firstDay
+                && lastDay == that.lastDay
+                && totalSteps == that.totalSteps
+                && Double.compare(that.averageSteps, averageSteps) == 0
+                && goalMetDays == that.goalMetDays
+                && days.equals(that.days);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstDay, lastDay, days, totalSteps, averageSteps, goalMetDays);
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.mobigait.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "steps")
+import com.example.mobigait.utils.DateUtils;
+
+@Entity(tableName = "steps", indices = {
+        @Index(value = {"dayEpoch"}, unique = true),
+        // Covers the timestamp range scans and the SUM/AVG(stepCount) aggregates
+        @Index(value = {"timestamp", "stepCount"})
+})
 public class Step {
     @PrimaryKey(autoGenerate = true)
     private int id;
+    // Local day of the record (see DateUtils.toDayEpoch); there is one row per day
+    @ColumnInfo(defaultValue = "0")
+    private long dayEpoch;
     private long timestamp;
     private int stepCount;
     private double distance;
@@ -15,6 +26,7 @@ public class Step {
 
     public Step(long timestamp, int stepCount, double distance, double calories, long duration) {
         this.timestamp = timestamp;
+        this.dayEpoch = DateUtils.toDayEpoch(timestamp);
         this.stepCount = stepCount;
         this.distance = distance;
         this.calories = calories;
@@ -29,6 +41,14 @@ public class Step {
         this.id = id;
     }
 
+    public long getDayEpoch() {
+        return dayEpoch;
+    }
+
+    public void setDayEpoch(long dayEpoch) {
+        this.dayEpoch = dayEpoch;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,85 @@
+package com.example.mobigait.model;
+
+import com.example.mobigait.utils.DateUtils;
+
+/**
+ * The step counter's state at one moment: the day's totals and whether tracking is on.
+ * Immutable, so a snapshot can be handed between threads as is.
+ */
+public class StepSnapshot {
+    private final long dayEpoch;
+    private final int steps;
+    private final double distance;
+    private final double calories;
+    private final long duration;
+    private final boolean tracking;
+    private final boolean paused;
+    private final boolean live;
+
+    public StepSnapshot(long dayEpoch, int steps, double distance, double calories, long duration,
+                        boolean tracking, boolean paused) {
+        this(dayEpoch, steps, distance, calories, duration, tracking, paused, true);
+    }
+
+    private StepSnapshot(long dayEpoch, int steps, double distance, double calories, long duration,
+                         boolean tracking, boolean paused, boolean live) {
+        this.dayEpoch = dayEpoch;
+        this.steps = steps;
+        this.distance = distance;
+        this.calories = calories;
+        this.duration = duration;
+        this.tracking = tracking;
+        this.paused = paused;
+        this.live = live;
+    }
+
+    // Snapshots built from stored data, before the service has published anything
+    public static StepSnapshot empty(long dayEpoch) {
+        return new StepSnapshot(dayEpoch, 0, 0, 0, 0, false, false, false);
+    }
+
+    public static StepSnapshot of(Step step) {
+        return new StepSnapshot(step.getDayEpoch(), step.getStepCount(), step.getDistance(),
+                step.getCalories(), step.getDuration(), false, false, false);
+    }
+
+    public long getDayEpoch() {
+        return dayEpoch;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getCalories() {
+        return calories;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * True if published by the step counter service; false if loaded from the database,
+     * in which case the tracking flags are unknown.
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    public boolean isToday() {
+        return dayEpoch == DateUtils.toDayEpoch(System.currentTimeMillis());
+    }
+}
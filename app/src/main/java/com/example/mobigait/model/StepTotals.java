@@ -0,0 +1,12 @@
+package com.example.mobigait.model;
+
+/**
+ * Step totals for a period, as kept by the weekly and monthly rollups.
+ */
+public interface StepTotals {
+    long getTotalSteps();
+
+    int getActiveDays();
+
+    double getAverageSteps();
+}
@@ -0,0 +1,71 @@
+package com.example.mobigait.model;
+
+/**
+ * The user's body measurements, with every per-step estimate derived from them computed up front.
+ * This is the one place the app turns a step count into distance, calories and walking time.
+ * Immutable; get the current one from {@code UserPreferences.getProfile()}.
+ */
+public class UserProfile {
+    public static final float DEFAULT_HEIGHT_CM = 170f;
+    public static final float DEFAULT_WEIGHT_KG = 70f;
+
+    private static final double STEP_LENGTH_FACTOR = 0.415; // average step length is 41.5% of height
+    private static final double MALE_CALORIE_FACTOR = 1.0;  // kcal per kg per km
+    private static final double FEMALE_CALORIE_FACTOR = 0.9;
+    private static final long MILLIS_PER_STEP = 600;        // 100 steps a minute
+
+    private final float heightCm;
+    private final float weightKg;
+    private final boolean male;
+    private final double stepLengthMeters;
+    private final double kcalPerKm;
+    private final double kmPerStep;
+    private final double kcalPerStep;
+
+    /**
+     * Missing (zero or negative) height and weight fall back to the defaults.
+     */
+    public UserProfile(float heightCm, float weightKg, String gender) {
+        this.heightCm = heightCm > 0 ? heightCm : DEFAULT_HEIGHT_CM;
+        this.weightKg = weightKg > 0 ? weightKg : DEFAULT_WEIGHT_KG;
+        this.male = "Male".equalsIgnoreCase(gender);
+
+        stepLengthMeters = this.heightCm * STEP_LENGTH_FACTOR / 100;
+        kmPerStep = stepLengthMeters / 1000;
+        kcalPerKm = this.weightKg * (male ? MALE_CALORIE_FACTOR : FEMALE_CALORIE_FACTOR);
+        kcalPerStep = kmPerStep * kcalPerKm;
+    }
+
+    public float getHeightCm() {
+        return heightCm;
+    }
+
+    public float getWeightKg() {
+        return weightKg;
+    }
+
+    public boolean isMale() {
+        return male;
+    }
+
+    public double getStepLengthMeters() {
+        return stepLengthMeters;
+    }
+
+    public double distanceKm(int steps) {
+        return steps * kmPerStep;
+    }
+
+    public double calories(int steps) {
+        return steps * kcalPerStep;
+    }
+
+    public double caloriesForDistance(double distanceKm) {
+        return distanceKm * kcalPerKm;
+    }
+
+    // Walking time estimated from the step count
+    public long durationMillis(int steps) {
+        return steps * MILLIS_PER_STEP;
+    }
+}
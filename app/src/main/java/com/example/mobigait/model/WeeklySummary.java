@@ -0,0 +1,84 @@
+package com.example.mobigait.model;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Step totals for one week, keyed by the day epoch of its Monday.
+ * Rebuilt from the steps table whenever one of its days changes.
+ */
+@Entity(tableName = "weekly_summary")
+public class WeeklySummary implements StepTotals {
+    @PrimaryKey
+    private long weekStartDay;
+    private long totalSteps;
+    private double totalDistance;
+    private double totalCalories;
+    private long totalDuration;
+    private int activeDays; // days with a step record
+
+    public WeeklySummary(long weekStartDay, long totalSteps, double totalDistance,
+                        double totalCalories, long totalDuration, int activeDays) {
+        this.weekStartDay = weekStartDay;
+        this.totalSteps = totalSteps;
+        this.totalDistance = totalDistance;
+        this.totalCalories = totalCalories;
+        this.totalDuration = totalDuration;
+        this.activeDays = activeDays;
+    }
+
+    public long getWeekStartDay() {
+        return weekStartDay;
+    }
+
+    public void setWeekStartDay(long weekStartDay) {
+        this.weekStartDay = weekStartDay;
+    }
+
+    @Override
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    public void setTotalSteps(long totalSteps) {
+        this.totalSteps = totalSteps;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public void setTotalDistance(double totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public void setTotalCalories(double totalCalories) {
+        this.totalCalories = totalCalories;
+    }
+
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public void setTotalDuration(long totalDuration) {
+        this.totalDuration = totalDuration;
+    }
+
+    @Override
+    public int getActiveDays() {
+        return activeDays;
+    }
+
+    public void setActiveDays(int activeDays) {
+        this.activeDays = activeDays;
+    }
+
+    @Override
+    public double getAverageSteps() {
+        return activeDays > 0 ? (double) totalSteps / activeDays : 0;
+    }
+}
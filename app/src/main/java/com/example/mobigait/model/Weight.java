@@ -1,9 +1,10 @@
 package com.example.mobigait.model;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "weights")
+@Entity(tableName = "weights", indices = {@Index(value = {"timestamp"})})
 public class Weight {
     @PrimaryKey(autoGenerate = true)
     private int id;
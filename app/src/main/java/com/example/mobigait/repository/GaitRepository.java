@@ -1,24 +1,41 @@
 package com.example.mobigait.repository;
 
 import android.app.Application;
-import android.os.AsyncTask;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
 
 import com.example.mobigait.dao.GaitDao;
 import com.example.mobigait.database.AppDatabase;
 import com.example.mobigait.model.GaitData;
+import com.example.mobigait.utils.AppExecutors;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class GaitRepository {
-    private GaitDao gaitDao;
-    private LiveData<GaitData> latestGaitData;
+    private static volatile GaitRepository instance;
+    private final GaitDao gaitDao;
+    private final LiveData<GaitData> latestGaitData;
+    private final Executor writeExecutor;
+
+    public static GaitRepository getInstance(Application application) {
+        if (instance == null) {
+            synchronized (GaitRepository.class) {
+                if (instance == null) {
+                    instance = new GaitRepository(application, AppExecutors.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
 
-    public GaitRepository(Application application) {
+    @VisibleForTesting
+    public GaitRepository(Application application, AppExecutors executors) {
         AppDatabase db = AppDatabase.getInstance(application);
         gaitDao = db.gaitDao();
         latestGaitData = gaitDao.getLatestGaitData();
+        writeExecutor = executors.dbWrite();
     }
 
     public LiveData<GaitData> getLatestGaitData() {
@@ -34,38 +51,24 @@ public class GaitRepository {
     }
 
     public void insertGaitData(GaitData gaitData) {
-        new InsertGaitDataAsyncTask(gaitDao).execute(gaitData);
+        writeExecutor.execute(() -> gaitDao.insert(gaitData));
     }
 
-    private static class InsertGaitDataAsyncTask extends AsyncTask<GaitData, Void, Void> {
-        private GaitDao gaitDao;
-
-        InsertGaitDataAsyncTask(GaitDao gaitDao) {
-            this.gaitDao = gaitDao;
-        }
-
-        @Override
-        protected Void doInBackground(GaitData... gaitData) {
-            gaitDao.insert(gaitData[0]);
-            return null;
-        }
+    // Keyset page after the given timestamp. Must not be called on the main thread.
+    public List<GaitData> getGaitDataPageSync(long afterTimestamp, int limit) {
+        return gaitDao.getGaitDataPageSync(afterTimestamp, limit);
     }
 
-    public void deleteAllGaitData() {
-        new DeleteAllGaitDataAsyncTask(gaitDao).execute();
+    public int countGaitDataSync() {
+        return gaitDao.countGaitDataSync();
     }
 
-    private static class DeleteAllGaitDataAsyncTask extends AsyncTask<Void, Void, Void> {
-        private GaitDao gaitDao;
-
-        DeleteAllGaitDataAsyncTask(GaitDao gaitDao) {
-            this.gaitDao = gaitDao;
-        }
+    // Insert a batch of imported records in one transaction; existing timestamps are replaced
+    public void importGaitDataSync(List<GaitData> gaitData) {
+        gaitDao.insertAll(gaitData);
+    }
 
-        @Override
-        protected Void doInBackground(Void... voids) {
-            gaitDao.deleteAllGaitData();
-            return null;
-        }
+    public void deleteAllGaitData() {
+        writeExecutor.execute(() -> gaitDao.deleteAllGaitData());
     }
 }
\ No newline at end of file
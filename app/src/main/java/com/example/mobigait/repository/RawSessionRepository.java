@@ -0,0 +1,133 @@
+package com.example.mobigait.repository;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LiveData;
+
+import com.example.mobigait.database.AppDatabase;
+import com.example.mobigait.database.RawSessionDao;
+import com.example.mobigait.gait.RawSessionFormat;
+import com.example.mobigait.gait.RawSessionReader;
+import com.example.mobigait.gait.RawSessionWriter;
+import com.example.mobigait.model.RawSession;
+
+import java.io.File;
+import java.io.IOException;
+import com.example.mobigait.utils.AppExecutors;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Raw sensor recordings: one append-only file per session, indexed in the raw_sessions table.
+ */
+public class RawSessionRepository {
+    private static final String TAG = "RawSessionRepository";
+    private static final String DIRECTORY = "raw_sessions";
+    private static volatile RawSessionRepository instance;
+
+    private final RawSessionDao rawSessionDao;
+    private final File sessionsDir;
+    private final Executor writeExecutor;
+
+    public static RawSessionRepository getInstance(Application application) {
+        if (instance == null) {
+            synchronized (RawSessionRepository.class) {
+                if (instance == null) {
+                    instance = new RawSessionRepository(application, AppExecutors.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    public RawSessionRepository(Application application, AppExecutors executors) {
+        rawSessionDao = AppDatabase.getInstance(application).rawSessionDao();
+        sessionsDir = new File(application.getFilesDir(), DIRECTORY);
+        writeExecutor = executors.dbWrite();
+    }
+
+    /**
+     * Create the file for a new session and add it to the index.
+     * Call from the thread that will append to the returned writer.
+     *
+     * @return the writer, or null if the file could not be created
+     */
+    public RawSessionWriter startSession() {
+        long startTime = System.currentTimeMillis();
+        String fileName = "session_" + startTime + RawSessionFormat.FILE_EXTENSION;
+        try {
+            if (!sessionsDir.exists()) {
+                sessionsDir.mkdirs();
+            }
+            RawSessionWriter writer = new RawSessionWriter(new File(sessionsDir, fileName), startTime);
+            writeExecutor.execute(() -> rawSessionDao.insert(new RawSession(startTime, 0, fileName, 0)));
+            return writer;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not start raw session", e);
+            return null;
+        }
+    }
+
+    /**
+     * Close the session's file and record its length in the index.
+     */
+    public void finishSession(RawSessionWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing raw session " + writer.getFile(), e);
+        }
+        if (writer.hasFailed()) {
+            Log.w(TAG, "Raw session " + writer.getFile() + " stopped early, storage could not be extended");
+        }
+
+        String fileName = writer.getFile().getName();
+        long endTime = System.currentTimeMillis();
+        long sampleCount = writer.getSampleCount();
+        writeExecutor.execute(() -> rawSessionDao.finish(fileName, endTime, sampleCount));
+        Log.d(TAG, "Recorded " + sampleCount + " raw samples to " + fileName);
+    }
+
+    public LiveData<List<RawSession>> getSessions() {
+        return rawSessionDao.getSessions();
+    }
+
+    public List<RawSession> getSessionsSync() {
+        return rawSessionDao.getSessionsSync();
+    }
+
+    public File getSessionFile(RawSession session) {
+        return new File(sessionsDir, session.getFileName());
+    }
+
+    /**
+     * Replay a recorded session sample by sample on the calling thread.
+     * Must not be called on the main thread.
+     */
+    public long replay(RawSession session, RawSessionReader.SampleListener listener) throws IOException {
+        return RawSessionReader.replay(getSessionFile(session), listener);
+    }
+
+    public void deleteSession(RawSession session) {
+        writeExecutor.execute(() -> {
+            rawSessionDao.delete(session.getId());
+            getSessionFile(session).delete();
+        });
+    }
+
+    public void deleteAllSessions() {
+        writeExecutor.execute(() -> {
+            rawSessionDao.deleteAll();
+            File[] files = sessionsDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+}
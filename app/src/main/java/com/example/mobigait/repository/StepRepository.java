@@ -3,60 +3,166 @@ package com.example.mobigait.repository;
 import android.app.Application;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
 
 import com.example.mobigait.database.AppDatabase;
 import com.example.mobigait.database.StepDao;
+import com.example.mobigait.database.SummaryDao;
+import com.example.mobigait.model.DailySummary;
+import com.example.mobigait.model.MonthlySummary;
 import com.example.mobigait.model.Step;
+import com.example.mobigait.model.StepSnapshot;
+import com.example.mobigait.model.WeeklySummary;
+import com.example.mobigait.utils.AppExecutors;
+import com.example.mobigait.utils.DateUtils;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.BehaviorProcessor;
+import io.reactivex.rxjava3.processors.FlowableProcessor;
+import io.reactivex.rxjava3.processors.PublishProcessor;
 
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Step history, and the live {@link StepSnapshot} stream for the current day.
+ * One instance per process, so every screen and the step counter service share the same stream.
+ */
 public class StepRepository {
     private static final String TAG = "StepRepository";
+    public static final long UI_SAMPLE_MS = 250; // screens get at most 4 snapshots a second
+    public static final long DAY_CHECK_MS = 60_000;
+    private static volatile StepRepository instance;
 
+    private final AppDatabase database;
     private final StepDao stepDao;
-    private final ExecutorService executorService;
+    private final SummaryDao summaryDao;
+    private final Executor writeExecutor;
+    private final Executor readExecutor;
+
+    // Fed by the step counter service; Room is only read once, to fill it on a cold start.
+    // Publishing is serialized by todayLock, as the processor requires.
+    private final BehaviorProcessor<StepSnapshot> snapshots = BehaviorProcessor.create();
+    private final Object todayLock = new Object();
+    private boolean todayLoadStarted = false;
+
+    // Bumped each time all steps are deleted, so a live write counted before then is dropped
+    private final AtomicInteger stepsGeneration = new AtomicInteger();
+    private final FlowableProcessor<Integer> stepResets = PublishProcessor.<Integer>create().toSerialized();
+
+    public static StepRepository getInstance(Application application) {
+        if (instance == null) {
+            synchronized (StepRepository.class) {
+                if (instance == null) {
+                    instance = new StepRepository(application, AppExecutors.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
 
-    public StepRepository(Application application) {
-        AppDatabase database = AppDatabase.getInstance(application);
+    @VisibleForTesting
+    public StepRepository(Application application, AppExecutors executors) {
+        database = AppDatabase.getInstance(application);
         stepDao = database.stepDao();
-        executorService = Executors.newSingleThreadExecutor();
+        summaryDao = database.summaryDao();
+        writeExecutor = executors.dbWrite();
+        readExecutor = executors.dbRead();
+    }
+
+    /**
+     * Every snapshot, starting with the latest one, delivered on the publisher's thread.
+     * A slow subscriber skips to the newest snapshot rather than buffering.
+     * The first subscription loads today's totals from the database if the step counter
+     * service has not published anything yet.
+     */
+    public Flowable<StepSnapshot> getStepSnapshots() {
+        loadTodayIfCold();
+        return snapshots.onBackpressureLatest();
+    }
+
+    /**
+     * Snapshots for screens: at most one per {@link #UI_SAMPLE_MS}, always ending on the
+     * latest, delivered on the main thread.
+     */
+    public Flowable<StepSnapshot> getUiStepSnapshots() {
+        return getStepSnapshots()
+                .throttleLatest(UI_SAMPLE_MS, TimeUnit.MILLISECONDS, true)
+                .observeOn(AndroidSchedulers.mainThread());
     }
 
-    public LiveData<Step> getLatestStep() {
-        return stepDao.getLatestStepLiveData();
+    /**
+     * Today's day epoch, then again each time the local day changes, delivered on the main thread.
+     * Polled every {@link #DAY_CHECK_MS} rather than scheduled for midnight, so a clock or time
+     * zone change is picked up too.
+     */
+    public Flowable<Long> getDayChanges() {
+        return Flowable.interval(0, DAY_CHECK_MS, TimeUnit.MILLISECONDS)
+                .map(tick -> DateUtils.toDayEpoch(System.currentTimeMillis()))
+                .distinctUntilChanged()
+                .observeOn(AndroidSchedulers.mainThread());
     }
 
-    public void insert(Step step) {
-        executorService.execute(() -> {
-            // Check if there's already a step record for today
-            long startOfDay = getDayStart(step.getTimestamp());
-            long endOfDay = getDayEnd(step.getTimestamp());
+    /**
+     * The latest published snapshot, or null if there is none yet. May be from an earlier day.
+     */
+    public StepSnapshot getLatestSnapshot() {
+        return snapshots.getValue();
+    }
 
-            Step existingStep = stepDao.getStepForDaySync(startOfDay, endOfDay);
+    /**
+     * Hand a new snapshot to every subscriber. Called by the step counter service, from any thread.
+     */
+    public void publish(StepSnapshot snapshot) {
+        synchronized (todayLock) {
+            snapshots.onNext(snapshot);
+        }
+    }
 
-            if (existingStep != null) {
-                // Update existing record
-                existingStep.setStepCount(step.getStepCount());
-                existingStep.setDistance(step.getDistance());
-                existingStep.setCalories(step.getCalories());
-                existingStep.setDuration(step.getDuration());
-                stepDao.update(existingStep);
-                Log.d(TAG, "Updated existing step record: " + existingStep.getStepCount() + " steps");
-            } else {
-                // Insert new record
-                stepDao.insert(step);
-                Log.d(TAG, "Inserted new step record: " + step.getStepCount() + " steps");
+    private void loadTodayIfCold() {
+        synchronized (todayLock) {
+            if (todayLoadStarted || snapshots.hasValue()) return;
+            todayLoadStarted = true;
+        }
+        long dayEpoch = DateUtils.toDayEpoch(System.currentTimeMillis());
+        readExecutor.execute(() -> {
+            Step step = stepDao.getStepForDayEpochSync(dayEpoch);
+            synchronized (todayLock) {
+                // The service may have published while the query ran; its numbers are newer
+                if (snapshots.hasValue()) return;
+                snapshots.onNext(step != null ? StepSnapshot.of(step) : StepSnapshot.empty(dayEpoch));
             }
         });
     }
 
+    /**
+     * Save the totals for the step's day, updating the day's record and its rollups.
+     * Skipped if all steps were deleted since {@code generation} was read (see
+     * {@link #getStepsGeneration()}), so a count from before the deletion never comes back.
+     */
+    public void insert(Step step, int generation) {
+        writeExecutor.execute(() -> {
+            if (generation != stepsGeneration.get()) {
+                Log.d(TAG, "Dropped step record counted before the history was cleared");
+                return;
+            }
+            database.runInTransaction(() -> {
+                stepDao.upsertForDay(step);
+                summaryDao.refreshForDay(step.getDayEpoch());
+            });
+            Log.d(TAG, "Saved step record for day " + step.getDayEpoch() + ": " + step.getStepCount() + " steps");
+        });
+    }
+
     public void update(Step step) {
-        executorService.execute(() -> stepDao.update(step));
+        writeExecutor.execute(() -> database.runInTransaction(() -> {
+            stepDao.update(step);
+            summaryDao.refreshForDay(step.getDayEpoch());
+        }));
     }
 
     public LiveData<List<Step>> getStepsBetweenDates(long startTime, long endTime) {
@@ -74,59 +180,92 @@ public class StepRepository {
         return stepDao.getAverageStepsBetweenDates(startTime, endTime);
     }
 
+    /**
+     * Per-day totals, one row per day that has steps.
+     */
+    public LiveData<List<DailySummary>> getDailySummaries(long firstDay, long lastDay) {
+        return summaryDao.getDailySummaries(firstDay, lastDay);
+    }
+
+    public LiveData<WeeklySummary> getWeeklySummary(long weekStartDay) {
+        return summaryDao.getWeeklySummary(weekStartDay);
+    }
+
+    public LiveData<MonthlySummary> getMonthlySummary(int monthKey) {
+        return summaryDao.getMonthlySummary(monthKey);
+    }
+
     public void getStepForDay(long startOfDay, long endOfDay, StepCallback callback) {
-        executorService.execute(() -> {
+        readExecutor.execute(() -> {
             Step step = stepDao.getStepForDaySync(startOfDay, endOfDay);
             callback.onStepLoaded(step);
         });
     }
 
-    public List<Step> getAllStepsSync() {
-        // Create a single-element array to hold the result
-        final List<Step>[] result = new List[1];
+    /**
+     * Read one page of steps after the given (timestamp, id) key. Must not be called on the main thread.
+     * Start with {@code Long.MIN_VALUE, 0} and pass the last row's key to get the next page.
+     */
+    public List<Step> getStepsPageSync(long afterTimestamp, int afterId, int limit) {
+        return stepDao.getStepsPageSync(afterTimestamp, afterId, limit);
+    }
 
-        // Use CountDownLatch to wait for the database operation to complete
-        CountDownLatch latch = new CountDownLatch(1);
+    public int countStepsSync() {
+        return stepDao.countStepsSync();
+    }
 
-        executorService.execute(() -> {
-            result[0] = stepDao.getAllStepsSync();
-            latch.countDown();
+    /**
+     * Insert a batch of imported days in one transaction, then refresh their rollups.
+     * A day already on the device keeps whichever record has more steps.
+     * Must not be called on the main thread.
+     */
+    public void importStepsSync(List<Step> steps) {
+        database.runInTransaction(() -> {
+            // Imported steps are in timestamp order, so a day's rows are adjacent
+            // and each day's rollups only need refreshing once
+            boolean hasPendingDay = false;
+            long pendingDay = 0;
+            for (Step step : steps) {
+                Step existing = stepDao.getStepForDayEpochSync(step.getDayEpoch());
+                if (existing != null && existing.getStepCount() >= step.getStepCount()) {
+                    continue;
+                }
+                stepDao.upsertForDay(step);
+                if (hasPendingDay && pendingDay != step.getDayEpoch()) {
+                    summaryDao.refreshForDay(pendingDay);
+                }
+                pendingDay = step.getDayEpoch();
+                hasPendingDay = true;
+            }
+            if (hasPendingDay) {
+                summaryDao.refreshForDay(pendingDay);
+            }
         });
-
-        try {
-            // Wait for the database operation to complete (with timeout)
-            latch.await(5, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Log.e(TAG, "Error getting all steps", e);
-            Thread.currentThread().interrupt();
-        }
-
-        return result[0] != null ? result[0] : new java.util.ArrayList<>();
     }
 
+    /**
+     * Delete the whole step history, including today, and tell the step counter service
+     * through {@link #getStepResets()} so it starts again from zero.
+     */
     public void deleteAllSteps() {
-        executorService.execute(() -> stepDao.deleteAllSteps());
+        int generation = stepsGeneration.incrementAndGet();
+        writeExecutor.execute(() -> database.runInTransaction(() -> {
+            stepDao.deleteAllSteps();
+            summaryDao.deleteAll();
+        }));
+        publish(StepSnapshot.empty(DateUtils.toDayEpoch(System.currentTimeMillis())));
+        stepResets.onNext(generation);
     }
 
-    // Helper methods for date calculations
-    private long getDayStart(long timestamp) {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp);
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        calendar.set(java.util.Calendar.MINUTE, 0);
-        calendar.set(java.util.Calendar.SECOND, 0);
-        calendar.set(java.util.Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
+    public int getStepsGeneration() {
+        return stepsGeneration.get();
     }
 
-    private long getDayEnd(long timestamp) {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp);
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 23);
-        calendar.set(java.util.Calendar.MINUTE, 59);
-        calendar.set(java.util.Calendar.SECOND, 59);
-        calendar.set(java.util.Calendar.MILLISECOND, 999);
-        return calendar.getTimeInMillis();
+    /**
+     * The new generation each time {@link #deleteAllSteps()} runs, on its caller's thread.
+     */
+    public Flowable<Integer> getStepResets() {
+        return stepResets.onBackpressureLatest();
     }
 
     public interface StepCallback {
@@ -134,20 +273,20 @@ public class StepRepository {
     }
 
     public void getLatestStepSync(StepCallback callback) {
-        executorService.execute(() -> {
+        readExecutor.execute(() -> {
             Step latestStep = stepDao.getLatestStepSync();
             callback.onStepLoaded(latestStep);
         });
     }
 
     /**
-     * Get steps between two dates synchronously
+     * Load the steps between two dates on the DB read lane and pass them to the callback there
      */
     public void getStepsBetweenDatesSync(long startTime, long endTime, StepDataCallback callback) {
-        new Thread(() -> {
+        readExecutor.execute(() -> {
             List<Step> steps = stepDao.getStepsBetweenDatesSync(startTime, endTime);
             callback.onStepDataLoaded(steps);
-        }).start();
+        });
     }
 
     public interface StepDataCallback {
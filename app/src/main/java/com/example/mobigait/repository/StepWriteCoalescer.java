@@ -0,0 +1,137 @@
+package com.example.mobigait.repository;
+
+import android.util.Log;
+
+import com.example.mobigait.model.Step;
+
+/**
+ * Keeps the live step count in memory and writes it to the database only when enough
+ * time has passed or enough steps have accumulated since the last write.
+ * Callers force a write with {@link #flush()} on pause, stop, day rollover and shutdown.
+ * Not thread-safe: offer and flush must be called from a single thread; stats may be read anywhere.
+ */
+public class StepWriteCoalescer {
+    private static final String TAG = "StepWriteCoalescer";
+
+    public static final long DEFAULT_MAX_DELAY_MS = 30 * 1000; // write at least every 30 s
+    public static final int DEFAULT_MAX_STEP_DELTA = 100;      // or every 100 steps
+
+    private final StepRepository repository;
+    private final long maxDelayMs;
+    private final int maxStepDelta;
+
+    // Latest unwritten values
+    private boolean hasPending = false;
+    private long pendingTimestamp;
+    private int pendingSteps;
+    private double pendingDistance;
+    private double pendingCalories;
+    private long pendingDuration;
+
+    private int lastWrittenSteps = 0;
+    private long lastWriteTime = 0;
+    private int generation; // see StepRepository.getStepsGeneration
+
+    // Statistics
+    private volatile long updateCount = 0;
+    private volatile long writeCount = 0;
+    private volatile long lastWriteTimeMillis = 0;
+
+    public StepWriteCoalescer(StepRepository repository) {
+        this(repository, DEFAULT_MAX_DELAY_MS, DEFAULT_MAX_STEP_DELTA);
+    }
+
+    public StepWriteCoalescer(StepRepository repository, long maxDelayMs, int maxStepDelta) {
+        this.repository = repository;
+        this.maxDelayMs = maxDelayMs;
+        this.maxStepDelta = maxStepDelta;
+        generation = repository.getStepsGeneration();
+    }
+
+    /**
+     * Record the latest values for the day, writing them through if the policy says so.
+     *
+     * @return true if the values were written immediately
+     */
+    public boolean offer(long timestamp, int steps, double distance, double calories, long duration) {
+        pendingTimestamp = timestamp;
+        pendingSteps = steps;
+        pendingDistance = distance;
+        pendingCalories = calories;
+        pendingDuration = duration;
+        hasPending = true;
+        updateCount++;
+
+        boolean dueBySteps = Math.abs(steps - lastWrittenSteps) >= maxStepDelta;
+        boolean dueByTime = timestamp - lastWriteTime >= maxDelayMs;
+        if (dueBySteps || dueByTime) {
+            flush();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Write the pending values, if any.
+     */
+    public void flush() {
+        if (!hasPending) return;
+
+        repository.insert(new Step(pendingTimestamp, pendingSteps, pendingDistance,
+                pendingCalories, pendingDuration), generation);
+
+        hasPending = false;
+        lastWrittenSteps = pendingSteps;
+        lastWriteTime = pendingTimestamp;
+        writeCount++;
+        lastWriteTimeMillis = System.currentTimeMillis();
+        Log.d(TAG, "Flushed " + pendingSteps + " steps (" + getStats() + ")");
+    }
+
+    /**
+     * Forget the unwritten values after the step history was deleted; only counts offered
+     * from now on, under the new {@code generation}, are written.
+     */
+    public void reset(int generation) {
+        this.generation = generation;
+        hasPending = false;
+        lastWrittenSteps = 0;
+        lastWriteTime = 0;
+    }
+
+    public boolean hasPending() {
+        return hasPending;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public Stats getStats() {
+        return new Stats(updateCount, writeCount, lastWriteTimeMillis);
+    }
+
+    /**
+     * Snapshot of how many updates were received and how many reached the database.
+     */
+    public static class Stats {
+        public final long updates;
+        public final long writes;
+        public final long lastWriteTimeMillis;
+
+        Stats(long updates, long writes, long lastWriteTimeMillis) {
+            this.updates = updates;
+            this.writes = writes;
+            this.lastWriteTimeMillis = lastWriteTimeMillis;
+        }
+
+        public long getCoalesced() {
+            return updates - writes;
+        }
+
+        @Override
+        public String toString() {
+            return "updates=" + updates + ", writes=" + writes + ", coalesced=" + getCoalesced();
+        }
+    }
+}
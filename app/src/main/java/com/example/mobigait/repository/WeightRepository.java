@@ -3,37 +3,52 @@ package com.example.mobigait.repository;
 import android.app.Application;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
 
 import com.example.mobigait.database.AppDatabase;
 import com.example.mobigait.database.WeightDao;
 import com.example.mobigait.model.Weight;
+import com.example.mobigait.utils.AppExecutors;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class WeightRepository {
     private static final String TAG = "WeightRepository";
+    private static volatile WeightRepository instance;
 
+    private final AppDatabase database;
     private final WeightDao weightDao;
-    private final ExecutorService executorService;
+    private final Executor writeExecutor;
 
-    public WeightRepository(Application application) {
-        AppDatabase database = AppDatabase.getInstance(application);
+    public static WeightRepository getInstance(Application application) {
+        if (instance == null) {
+            synchronized (WeightRepository.class) {
+                if (instance == null) {
+                    instance = new WeightRepository(application, AppExecutors.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    public WeightRepository(Application application, AppExecutors executors) {
+        database = AppDatabase.getInstance(application);
         weightDao = database.weightDao();
-        executorService = Executors.newSingleThreadExecutor();
+        writeExecutor = executors.dbWrite();
     }
 
     public void insert(Weight weight) {
-        executorService.execute(() -> {
+        writeExecutor.execute(() -> {
             weightDao.insert(weight);
             Log.d(TAG, "Inserted weight record: " + weight.getWeight() + " kg");
         });
     }
 
     public void update(Weight weight) {
-        executorService.execute(() -> weightDao.update(weight));
+        writeExecutor.execute(() -> weightDao.update(weight));
     }
 
     public LiveData<List<Weight>> getWeightsBetweenDates(long startTime, long endTime) {
@@ -48,7 +63,28 @@ public class WeightRepository {
         return weightDao.getAllWeightsSync();
     }
 
+    // Keyset page after (timestamp, id); see StepRepository.getStepsPageSync
+    public List<Weight> getWeightsPageSync(long afterTimestamp, int afterId, int limit) {
+        return weightDao.getWeightsPageSync(afterTimestamp, afterId, limit);
+    }
+
+    public int countWeightsSync() {
+        return weightDao.countWeightsSync();
+    }
+
+    /**
+     * Insert a batch of imported weights in one transaction, skipping ones already recorded.
+     * Must not be called on the main thread.
+     */
+    public void importWeightsSync(List<Weight> weights) {
+        database.runInTransaction(() -> {
+            for (Weight weight : weights) {
+                weightDao.insertIfAbsent(weight.getTimestamp(), weight.getWeight());
+            }
+        });
+    }
+
     public void deleteAllWeights() {
-        executorService.execute(() -> weightDao.deleteAllWeights());
+        writeExecutor.execute(() -> weightDao.deleteAllWeights());
     }
 }
@@ -13,11 +13,16 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import com.example.mobigait.gait.GaitAnalyzer;
+import com.example.mobigait.gait.GaitEngine;
+import com.example.mobigait.gait.GaitFeatures;
+import com.example.mobigait.gait.RawSessionWriter;
+import com.example.mobigait.gait.SampleWindow;
 import com.example.mobigait.model.GaitData;
 import com.example.mobigait.repository.GaitRepository;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.mobigait.repository.RawSessionRepository;
+import com.example.mobigait.utils.AppExecutors;
+import com.example.mobigait.utils.UserPreferences;
 
 public class GaitAnalysisService extends Service implements SensorEventListener {
     private static final String TAG = "GaitAnalysisService";
@@ -26,22 +31,22 @@ public class GaitAnalysisService extends Service implements SensorEventListener
     private SensorManager sensorManager;
     private Sensor accelerometer;
     private Sensor gyroscope;
+    private Sensor gravitySensor; // gravity or game rotation vector, null if the device has neither
 
     private GaitRepository gaitRepository;
+    private RawSessionRepository rawSessionRepository;
+    private UserPreferences userPreferences;
+    private SensorPipeline pipeline;
 
-    // Data collection
-    private List<float[]> accelerometerData = new ArrayList<>();
-    private List<float[]> gyroscopeData = new ArrayList<>();
-    private List<Long> timestamps = new ArrayList<>();
+    // Open only while an opt-in raw recording is running; sensor thread only
+    private RawSessionWriter rawRecorder;
 
-    // Analysis state
-    private boolean isCollecting = false;
-    private boolean isWalking = false;
-    private long walkingStartTime = 0;
+    // Walking detection and windowing run on the sensor thread, feature extraction on the worker
+    private GaitEngine engine;
+    private final GaitAnalyzer analyzer = new GaitAnalyzer();
 
-    // Walking detection thresholds
-    private static final float WALKING_ACCELERATION_THRESHOLD = 1.5f; // m/s²
-    private static final int WALKING_WINDOW_SIZE = 50; // samples
+    // isCollecting is toggled on the main thread; the engine is touched only on the sensor thread
+    private volatile boolean isCollecting = false;
 
     // Broadcast actions
     public static final String ACTION_GAIT_ANALYSIS_STARTED = "com.example.mobigait.GAIT_ANALYSIS_STARTED";
@@ -54,7 +59,32 @@ public class GaitAnalysisService extends Service implements SensorEventListener
         accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
         gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
 
-        gaitRepository = new GaitRepository(getApplication());
+        // The engine takes gravity from a fused sensor when there is one,
+        // otherwise it runs its own complementary filter over the gyroscope
+        gravitySensor = sensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
+        if (gravitySensor == null) {
+            gravitySensor = sensorManager.getDefaultSensor(Sensor.TYPE_GAME_ROTATION_VECTOR);
+        }
+
+        AppExecutors executors = AppExecutors.getInstance();
+        gaitRepository = GaitRepository.getInstance(getApplication());
+        rawSessionRepository = RawSessionRepository.getInstance(getApplication());
+        userPreferences = new UserPreferences(this);
+        // The analyzer is not thread-safe, so windows are analyzed one at a time
+        pipeline = new SensorPipeline(sensorManager, TAG, executors.newSerialComputeExecutor());
+        engine = new GaitEngine(new GaitEngine.WindowListener() {
+            @Override
+            public void onWindow(SampleWindow window) {
+                // The window is already a copy, so the worker can take it without blocking sensor delivery
+                Log.d(TAG, "Analyzing gait with " + window.size() + " samples");
+                pipeline.submit(() -> analyzeWindow(window));
+            }
+
+            @Override
+            public void onWalkingChanged(boolean walking, long timestampNanos) {
+                Log.d(TAG, walking ? "Walking detected" : "Walking stopped");
+            }
+        });
 
         Log.d(TAG, "Gait analysis service created");
     }
@@ -76,12 +106,18 @@ public class GaitAnalysisService extends Service implements SensorEventListener
 
     private void startAnalysis() {
         if (!isCollecting) {
-            // Clear any existing data before starting
-            clearData();
+            // Clear any existing data before starting (queued ahead of the first sensor event)
+            pipeline.post(engine::reset);
+            if (userPreferences.isRawRecordingEnabled()) {
+                pipeline.post(() -> rawRecorder = rawSessionRepository.startSession());
+            }
 
-            // Register sensors at high sampling rate
-            sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_GAME);
-            sensorManager.registerListener(this, gyroscope, SensorManager.SENSOR_DELAY_GAME);
+            // Register sensors at high sampling rate, delivered on the sensor thread
+            pipeline.register(this, accelerometer, SensorManager.SENSOR_DELAY_GAME);
+            pipeline.register(this, gyroscope, SensorManager.SENSOR_DELAY_GAME);
+            if (gravitySensor != null) {
+                pipeline.register(this, gravitySensor, SensorManager.SENSOR_DELAY_GAME);
+            }
 
             isCollecting = true;
             Log.d(TAG, "Started gait analysis data collection");
@@ -94,138 +130,57 @@ public class GaitAnalysisService extends Service implements SensorEventListener
 
     private void stopAnalysis() {
         if (isCollecting) {
-            sensorManager.unregisterListener(this);
+            pipeline.unregister(this);
             isCollecting = false;
 
-            // Process collected data if we have enough
-            if (isWalking && accelerometerData.size() > WALKING_WINDOW_SIZE) {
-                analyzeGait();
-
-                // Notify that analysis is complete
-                Intent broadcastIntent = new Intent(ACTION_GAIT_ANALYSIS_COMPLETED);
-                LocalBroadcastManager.getInstance(this).sendBroadcast(broadcastIntent);
-            }
+            // The buffers belong to the sensor thread, so finish up there
+            pipeline.post(() -> {
+                // Process collected data if we have enough
+                if (engine.finish()) {
+                    // Notify that analysis is complete, after the worker has published the result
+                    Runnable notifyCompleted = () -> {
+                        Intent broadcastIntent = new Intent(ACTION_GAIT_ANALYSIS_COMPLETED);
+                        LocalBroadcastManager.getInstance(this).sendBroadcast(broadcastIntent);
+                    };
+                    if (!pipeline.submit(notifyCompleted)) {
+                        // The worker is saturated; don't leave the screen waiting for it
+                        notifyCompleted.run();
+                    }
+                }
 
-            // Clear data
-            clearData();
-            Log.d(TAG, "Stopped gait analysis data collection");
+                finishRawSession();
+                Log.d(TAG, "Stopped gait analysis data collection");
+            });
         }
     }
 
-    private void clearData() {
-        accelerometerData.clear();
-        gyroscopeData.clear();
-        timestamps.clear();
-        isWalking = false;
+    private void finishRawSession() {
+        if (rawRecorder != null) {
+            rawSessionRepository.finishSession(rawRecorder);
+            rawRecorder = null;
+        }
     }
 
     @Override
     public void onSensorChanged(SensorEvent event) {
         if (!isCollecting) return;
 
-        long timestamp = System.currentTimeMillis();
-
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            // Store accelerometer data
-            float[] values = new float[3];
-            System.arraycopy(event.values, 0, values, 0, 3);
-            accelerometerData.add(values);
-            timestamps.add(timestamp);
-
-            // Detect walking
-            detectWalking(values);
-
-            // If we have enough data, analyze periodically
-            if (isWalking && accelerometerData.size() >= 500) { // ~5 seconds at 100Hz
-                analyzeGait();
-
-                // Keep a sliding window of data
-                int keepSize = 100; // Keep last second of data
-                accelerometerData = accelerometerData.subList(
-                        accelerometerData.size() - keepSize,
-                        accelerometerData.size());
-                gyroscopeData = gyroscopeData.subList(
-                        gyroscopeData.size() - keepSize,
-                        gyroscopeData.size());
-                timestamps = timestamps.subList(
-                        timestamps.size() - keepSize,
-                        timestamps.size());
-            }
-        } else if (event.sensor.getType() == Sensor.TYPE_GYROSCOPE) {
-            // Store gyroscope data
-            float[] values = new float[3];
-            System.arraycopy(event.values, 0, values, 0, 3);
-            gyroscopeData.add(values);
-        }
-    }
-
-    private void detectWalking(float[] accelerometerValues) {
-        // Calculate magnitude of acceleration
-        float magnitude = (float) Math.sqrt(
-                accelerometerValues[0] * accelerometerValues[0] +
-                        accelerometerValues[1] * accelerometerValues[1] +
-                        accelerometerValues[2] * accelerometerValues[2]);
-
-        // Remove gravity component
-        magnitude = Math.abs(magnitude - SensorManager.GRAVITY_EARTH);
-
-        // Check if magnitude exceeds walking threshold
-        if (magnitude > WALKING_ACCELERATION_THRESHOLD) {
-            if (!isWalking) {
-                isWalking = true;
-                walkingStartTime = System.currentTimeMillis();
-                Log.d(TAG, "Walking detected");
-            }
-        } else {
-            // Check if we've been not walking for a while
-            if (accelerometerData.size() > WALKING_WINDOW_SIZE) {
-                boolean stillWalking = false;
-
-                // Check last few samples
-                for (int i = accelerometerData.size() - WALKING_WINDOW_SIZE;
-                     i < accelerometerData.size(); i++) {
-                    float[] values = accelerometerData.get(i);
-                    float mag = (float) Math.sqrt(
-                            values[0] * values[0] +
-                                    values[1] * values[1] +
-                                    values[2] * values[2]);
-                    mag = Math.abs(mag - SensorManager.GRAVITY_EARTH);
-
-                    if (mag > WALKING_ACCELERATION_THRESHOLD) {
-                        stillWalking = true;
-                        break;
-                    }
-                }
-
-                if (!stillWalking && isWalking) {
-                    isWalking = false;
-                    Log.d(TAG, "Walking stopped");
-
-                    // If we walked for at least 10 seconds, analyze the gait
-                    if (System.currentTimeMillis() - walkingStartTime > 10000) {
-                        analyzeGait();
-                    }
-
-                    clearData();
-                }
-            }
-        }
-    }
+        float[] values = event.values;
 
-    private void analyzeGait() {
-        if (accelerometerData.size() < WALKING_WINDOW_SIZE ||
-                gyroscopeData.size() < WALKING_WINDOW_SIZE) {
-            Log.d(TAG, "Not enough data to analyze gait");
-            return;
+        if (rawRecorder != null) {
+            rawRecorder.append(event.sensor.getType(), event.timestamp, values[0], values[1], values[2]);
         }
 
-        Log.d(TAG, "Analyzing gait with " + accelerometerData.size() + " samples");
+        engine.onSample(event.sensor.getType(), event.timestamp, values[0], values[1], values[2]);
+    }
 
+    // Runs on the pipeline worker, one window at a time
+    private void analyzeWindow(SampleWindow window) {
         // Extract features from the walking data
-        GaitFeatures features = extractGaitFeatures();
+        GaitFeatures features = analyzer.extractFeatures(window);
 
         // Classify gait based on features
-        String gaitStatus = classifyGait(features);
+        String gaitStatus = analyzer.classify(features);
 
         // Save results
         GaitData gaitData = new GaitData(
@@ -236,6 +191,11 @@ public class GaitAnalysisService extends Service implements SensorEventListener
                 features.symmetryIndex,
                 features.stepLength
         );
+        gaitData.setDominantFrequency(features.dominantFrequency);
+        gaitData.setHarmonicRatio(features.harmonicRatio);
+        gaitData.setSpectralRegularity(features.spectralRegularity);
+        gaitData.setStepRegularity(features.stepRegularity);
+        gaitData.setStrideRegularity(features.strideRegularity);
 
         gaitRepository.insertGaitData(gaitData);
 
@@ -251,162 +211,14 @@ public class GaitAnalysisService extends Service implements SensorEventListener
         Log.d(TAG, "Gait analysis complete: " + gaitStatus);
     }
 
-    private GaitFeatures extractGaitFeatures() {
-        GaitFeatures features = new GaitFeatures();
-
-        // 1. Detect steps using peak detection on vertical acceleration
-        List<Integer> stepIndices = detectSteps();
-
-        // 2. Calculate cadence (steps per minute)
-        if (stepIndices.size() >= 2) {
-            long firstStepTime = timestamps.get(stepIndices.get(0));
-            long lastStepTime = timestamps.get(stepIndices.get(stepIndices.size() - 1));
-            float walkingTimeMinutes = (lastStepTime - firstStepTime) / 60000f;
-
-            if (walkingTimeMinutes > 0) {
-                // Calculate raw cadence
-                float rawCadence = stepIndices.size() / walkingTimeMinutes;
-
-                // Cap the cadence at a reasonable maximum (120-130 steps/min is typical for fast walking)
-                features.cadence = Math.min(rawCadence, 130f);
-
-                // If the cadence is unrealistically high, apply a stronger correction
-                if (rawCadence > 200) {
-                    features.cadence = 100f + (rawCadence % 30); // This gives a more realistic value
-                }
-
-                Log.d(TAG, "Raw cadence: " + rawCadence + ", Adjusted cadence: " + features.cadence);
-            }
-        }
-
-        // 3. Calculate step variability (consistency)
-        if (stepIndices.size() >= 3) {
-            List<Long> stepIntervals = new ArrayList<>();
-            for (int i = 1; i < stepIndices.size(); i++) {
-                stepIntervals.add(timestamps.get(stepIndices.get(i)) -
-                        timestamps.get(stepIndices.get(i-1)));
-            }
-
-            // Calculate standard deviation of step intervals
-            double mean = 0;
-            for (Long interval : stepIntervals) {
-                mean += interval;
-            }
-            mean /= stepIntervals.size();
-
-            double variance = 0;
-            for (Long interval : stepIntervals) {
-                variance += Math.pow(interval - mean, 2);
-            }
-            variance /= stepIntervals.size();
-
-            features.stepVariability = Math.sqrt(variance);
-        }
-
-        // 4. Calculate symmetry index (left vs right steps)
-        // This is simplified - a real implementation would need to identify left vs right steps
-        if (stepIndices.size() >= 4) {
-            List<Long> evenStepIntervals = new ArrayList<>();
-            List<Long> oddStepIntervals = new ArrayList<>();
-
-            for (int i = 1; i < stepIndices.size(); i++) {
-                long interval = timestamps.get(stepIndices.get(i)) -
-                        timestamps.get(stepIndices.get(i-1));
-
-                if (i % 2 == 0) {
-                    evenStepIntervals.add(interval);
-                } else {
-                    oddStepIntervals.add(interval);
-                }
-            }
-
-            // Calculate average for even and odd steps
-            double evenAvg = calculateAverage(evenStepIntervals);
-            double oddAvg = calculateAverage(oddStepIntervals);
-
-            // Symmetry index (0 = perfect symmetry)
-            features.symmetryIndex = Math.abs(evenAvg - oddAvg) /
-                    ((evenAvg + oddAvg) / 2) * 100;
-        }
-
-        // 5. Estimate step length (very simplified)
-        // A real implementation would use more sophisticated methods
-        if (features.cadence > 0) {
-            // Rough estimate based on cadence
-            features.stepLength = 0.5f; // Default 50cm
-
-            if (features.cadence < 90) {
-                features.stepLength = 0.4f; // Shorter steps for slower cadence
-            } else if (features.cadence > 120) {
-                features.stepLength = 0.6f; // Longer steps for faster cadence
-            }
-        }
-
-        return features;
-    }
-
-    private List<Integer> detectSteps() {
-        List<Integer> stepIndices = new ArrayList<>();
-
-        // Simple peak detection on vertical acceleration
-        boolean lookingForPeak = true;
-        float peakThreshold = 1.5f; // Increased threshold to avoid false positives
-
-        // Minimum time between steps in milliseconds (prevent unrealistically fast steps)
-        long minStepInterval = 300; // 300ms = maximum of 200 steps per minute
-        long lastStepTime = 0;
-
-        for (int i = 1; i < accelerometerData.size() - 1; i++) {
-            float prevY = accelerometerData.get(i-1)[1];
-            float currY = accelerometerData.get(i)[1];
-            float nextY = accelerometerData.get(i+1)[1];
-            long currentTime = timestamps.get(i);
-
-            // Detect peaks (local maxima) with time constraint
-            if (lookingForPeak && currY > prevY && currY > nextY && currY > peakThreshold) {
-                // Check if enough time has passed since the last step
-                if (lastStepTime == 0 || (currentTime - lastStepTime) >= minStepInterval) {
-                    stepIndices.add(i);
-                    lastStepTime = currentTime;
-                    lookingForPeak = false;
-                }
-            }
-            // Reset after finding a valley (local minima)
-            else if (!lookingForPeak && currY < prevY && currY < nextY) {
-                lookingForPeak = true;
-            }
-        }
-
-        return stepIndices;
-    }
-
-    private double calculateAverage(List<Long> values) {
-        if (values.isEmpty()) return 0;
-
-        double sum = 0;
-        for (Long value : values) {
-            sum += value;
-        }
-        return sum / values.size();
-    }
-
-    private String classifyGait(GaitFeatures features) {
-        // Simple rule-based classification
-        // In a real app, you would use a trained machine learning model
-
-        if (features.cadence < 70 || features.cadence > 140) {
-            return "Abnormal Cadence";
-        }
-
-        if (features.stepVariability > 200) { // 200ms variability
-            return "Inconsistent Steps";
-        }
-
-        if (features.symmetryIndex > 20) { // 20% asymmetry
-            return "Asymmetric Gait";
-        }
-
-        return "Normal";
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        pipeline.unregister(this);
+        isCollecting = false;
+        pipeline.post(this::finishRawSession);
+        pipeline.quit();
+        Log.d(TAG, "Gait analysis service destroyed");
     }
 
     @Nullable
@@ -425,13 +237,5 @@ public class GaitAnalysisService extends Service implements SensorEventListener
             return GaitAnalysisService.this;
         }
     }
-
-    // Helper class to store gait features
-    private static class GaitFeatures {
-        float cadence = 0;           // steps per minute
-        double stepVariability = 0;  // milliseconds (standard deviation)
-        double symmetryIndex = 0;    // percentage (0 = perfect symmetry)
-        float stepLength = 0;        // meters
-    }
 }
 
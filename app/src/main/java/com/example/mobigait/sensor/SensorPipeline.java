@@ -0,0 +1,117 @@
+package com.example.mobigait.sensor;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Moves sensor work off the main thread.
+ * Sensor events are delivered on a dedicated {@link HandlerThread}, heavier work
+ * (feature extraction) runs on the worker executor the pipeline is given, and only
+ * results are posted back to the main thread.
+ */
+public class SensorPipeline {
+    private static final String TAG = "SensorPipeline";
+
+    private final SensorManager sensorManager;
+    private final HandlerThread sensorThread;
+    private final Handler sensorHandler;
+    private final Executor worker;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param worker runs {@link #submit} tasks; a serial executor keeps them in order
+     *               for work that is not thread-safe
+     */
+    public SensorPipeline(SensorManager sensorManager, String name, Executor worker) {
+        this.sensorManager = sensorManager;
+        this.worker = worker;
+
+        sensorThread = new HandlerThread(name + "-sensors", Process.THREAD_PRIORITY_DEFAULT);
+        sensorThread.start();
+        sensorHandler = new Handler(sensorThread.getLooper());
+    }
+
+    /**
+     * Register a listener whose events will be delivered on the sensor thread.
+     */
+    public boolean register(SensorEventListener listener, Sensor sensor, int samplingPeriodUs) {
+        if (sensor == null) return false;
+        return sensorManager.registerListener(listener, sensor, samplingPeriodUs, sensorHandler);
+    }
+
+    /**
+     * Register with hardware batching: events may be held in the sensor FIFO for up to
+     * {@code maxReportLatencyUs} so the application processor can sleep between batches.
+     */
+    public boolean register(SensorEventListener listener, Sensor sensor,
+                            int samplingPeriodUs, int maxReportLatencyUs) {
+        if (sensor == null) return false;
+        return sensorManager.registerListener(listener, sensor, samplingPeriodUs,
+                maxReportLatencyUs, sensorHandler);
+    }
+
+    /**
+     * Ask the hardware to deliver any batched events for this listener now.
+     */
+    public boolean flush(SensorEventListener listener) {
+        return sensorManager.flush(listener);
+    }
+
+    public void unregister(SensorEventListener listener) {
+        sensorManager.unregisterListener(listener);
+    }
+
+    // Run on the thread that receives sensor events
+    public void post(Runnable task) {
+        sensorHandler.post(task);
+    }
+
+    public void postDelayed(Runnable task, long delayMillis) {
+        sensorHandler.postDelayed(task, delayMillis);
+    }
+
+    public void removeCallbacks(Runnable task) {
+        sensorHandler.removeCallbacks(task);
+    }
+
+    public Handler getSensorHandler() {
+        return sensorHandler;
+    }
+
+    /**
+     * Run heavier processing away from both the sensor and main threads.
+     * If the worker is saturated (e.g. by a long export) the task is dropped, not thrown
+     * back into the sensor callback; returns whether it was accepted.
+     */
+    public boolean submit(Runnable task) {
+        try {
+            worker.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Worker busy, dropping task");
+            return false;
+        }
+    }
+
+    public void postToMain(Runnable task) {
+        mainHandler.post(task);
+    }
+
+    /**
+     * Stop the pipeline once the work already queued on the sensor thread has run.
+     * Delayed tasks that are not yet due are dropped; jobs already handed to the
+     * worker still run, as the worker is shared and outlives the pipeline.
+     */
+    public void quit() {
+        sensorThread.quitSafely();
+    }
+}
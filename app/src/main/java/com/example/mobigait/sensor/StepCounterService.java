@@ -1,7 +1,6 @@
 package com.example.mobigait.sensor;
 
 import android.app.AlarmManager;
-import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
@@ -19,20 +18,22 @@ import android.os.Binder;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
-import android.os.Looper;
 import android.os.PowerManager;
 import android.util.Log;
 
-import androidx.core.app.NotificationCompat;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
-import com.example.mobigait.MainActivity;
-import com.example.mobigait.R;
+import com.example.mobigait.gait.OrientationFusion;
+import com.example.mobigait.gait.StepDetector;
 import com.example.mobigait.model.Step;
+import com.example.mobigait.model.StepSnapshot;
+import com.example.mobigait.model.UserProfile;
 import com.example.mobigait.repository.StepRepository;
+import com.example.mobigait.repository.StepWriteCoalescer;
+import com.example.mobigait.utils.AppExecutors;
 import com.example.mobigait.utils.DateUtils;
 import com.example.mobigait.utils.UserPreferences;
 
+import io.reactivex.rxjava3.disposables.Disposable;
+
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -47,7 +48,6 @@ public class StepCounterService extends Service implements SensorEventListener {
     public static final String ACTION_RESET_TRACKING = "com.example.mobigait.ACTION_RESET_TRACKING";
     public static final String ACTION_UPDATE_NOTIFICATION = "com.example.mobigait.ACTION_UPDATE_NOTIFICATION";
     public static final String ACTION_MIDNIGHT_RESET = "com.example.mobigait.ACTION_MIDNIGHT_RESET";
-    public static final String ACTION_STEP_UPDATE = "com.example.mobigait.STEP_UPDATE";
 
     private static final String CHANNEL_ID = "StepCounterChannel";
     private static final int NOTIFICATION_ID = 1;
@@ -58,31 +58,36 @@ public class StepCounterService extends Service implements SensorEventListener {
     private Sensor accelerometer;
     private PowerManager.WakeLock wakeLock;
     private StepRepository repository;
+    private StepWriteCoalescer stepWriter;
     private UserPreferences userPreferences;
+    private SensorPipeline pipeline;
+    private StepNotificationRenderer notificationRenderer;
     private boolean useAccelerometer = false;
-    private int stepCount = 0;
+    // Step state is owned by the sensor thread; the volatile fields are also read from the main thread
+    private volatile int stepCount = 0;
     private int initialStepCount = -1;
     private int pausedStepCount = 0;
     private long startTime = 0;
     private long pausedTime = 0;
-    private boolean isTracking = false;
-    private boolean isPaused = false;
+    private volatile boolean isTracking = false;
+    private volatile boolean isPaused = false;
     private int currentDay = -1; // Store the current day to detect day changes
 
-    // For accelerometer-based step counting
-    private static final float STEP_THRESHOLD = 12.0f;
-    private static final int STEP_DELAY_NS = 250000000; // 250ms in nanoseconds
-    private float lastMagnitude = 0;
-    private long lastStepTime = 0;
+    // For accelerometer-based step counting; sensor thread only
+    private final OrientationFusion fusion = new OrientationFusion();
+    private final StepDetector stepDetector = new StepDetector();
+
+    // Low-power mode: let the step counter batch events in its hardware FIFO
+    private static final int MAX_REPORT_LATENCY_US = 10 * 1000 * 1000; // deliver a batch at least every 10 s
+    private volatile boolean isBatching = false;
 
-    // Handler for periodic checks
-    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Periodic day change check, run on the sensor thread alongside step updates
     private final Runnable dayChangeChecker = new Runnable() {
         @Override
         public void run() {
             checkForDayChange();
             // Schedule next check in 1 minute
-            handler.postDelayed(this, 60 * 1000);
+            pipeline.postDelayed(this, 60 * 1000);
         }
     };
 
@@ -97,6 +102,29 @@ public class StepCounterService extends Service implements SensorEventListener {
         }
     };
 
+    // Writes out coalesced step data that has been sitting unwritten for too long
+    private boolean flushScheduled = false;
+    private final Runnable pendingFlush = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled = false;
+            stepWriter.flush();
+        }
+    };
+
+    // Deliver batched steps as soon as the user can see them
+    private BroadcastReceiver screenOnReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_SCREEN_ON.equals(intent.getAction())) {
+                requestFlush();
+            }
+        }
+    };
+
+    // Clearing the history from the More screen deletes today's record too
+    private Disposable resetSubscription;
+
     // Binder for activity binding
     private final IBinder binder = new LocalBinder();
 
@@ -111,7 +139,9 @@ public class StepCounterService extends Service implements SensorEventListener {
         super.onCreate();
         Log.d(TAG, "Service created");
 
-        repository = new StepRepository(getApplication());
+        AppExecutors executors = AppExecutors.getInstance();
+        repository = StepRepository.getInstance(getApplication());
+        stepWriter = new StepWriteCoalescer(repository);
         userPreferences = new UserPreferences(this);
 
         // Initialize sensors
@@ -124,8 +154,13 @@ public class StepCounterService extends Service implements SensorEventListener {
             Log.d(TAG, "Step counter sensor not available, using accelerometer");
         }
 
+        // Sensor events and step bookkeeping are handled off the main thread
+        pipeline = new SensorPipeline(sensorManager, TAG, executors.newSerialComputeExecutor());
+
         // Create notification channel for Android O and above
         createNotificationChannel();
+        notificationRenderer = new StepNotificationRenderer(this, CHANNEL_ID, NOTIFICATION_ID,
+                pipeline.getSensorHandler(), StepNotificationRenderer.DEFAULT_MIN_INTERVAL_MS);
 
         // Acquire partial wake lock to keep CPU running
         PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
@@ -135,14 +170,18 @@ public class StepCounterService extends Service implements SensorEventListener {
         Calendar calendar = Calendar.getInstance();
         currentDay = calendar.get(Calendar.DAY_OF_YEAR);
 
-        // Register for midnight reset broadcasts
+        // Register for midnight reset and screen-on broadcasts, delivered on the sensor thread
         IntentFilter filter = new IntentFilter(ACTION_MIDNIGHT_RESET);
+        IntentFilter screenOnFilter = new IntentFilter(Intent.ACTION_SCREEN_ON);
+        Handler sensorHandler = pipeline.getSensorHandler();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             // For Android 13+ (API 33+)
-            registerReceiver(midnightResetReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
+            registerReceiver(midnightResetReceiver, filter, null, sensorHandler, Context.RECEIVER_NOT_EXPORTED);
+            registerReceiver(screenOnReceiver, screenOnFilter, null, sensorHandler, Context.RECEIVER_NOT_EXPORTED);
         } else {
             // For older Android versions
-            registerReceiver(midnightResetReceiver, filter);
+            registerReceiver(midnightResetReceiver, filter, null, sensorHandler);
+            registerReceiver(screenOnReceiver, screenOnFilter, null, sensorHandler);
         }
 
         // Load the latest step count from the database for today
@@ -152,12 +191,27 @@ public class StepCounterService extends Service implements SensorEventListener {
         scheduleMidnightReset();
 
         // Start day change checker
-        handler.post(dayChangeChecker);
+        pipeline.post(dayChangeChecker);
+
+        resetSubscription = repository.getStepResets().subscribe(
+                generation -> pipeline.post(() -> onStepsDeleted(generation)),
+                error -> Log.e(TAG, "Step reset stream failed", error));
     }
 
     private void loadTodayStepCount() {
+        // A restart within the same process picks up where the shared cache left off
+        StepSnapshot cached = repository.getLatestSnapshot();
+        if (cached != null && cached.isToday()) {
+            pipeline.post(() -> {
+                Log.d(TAG, "Restored today's step count from memory: " + cached.getSteps());
+                stepCount = cached.getSteps();
+                startTime = System.currentTimeMillis() - cached.getDuration();
+            });
+            return;
+        }
+
         long[] todayTimeRange = DateUtils.getTodayTimeRange();
-        repository.getStepsBetweenDatesSync(todayTimeRange[0], todayTimeRange[1], steps -> {
+        repository.getStepsBetweenDatesSync(todayTimeRange[0], todayTimeRange[1], steps -> pipeline.post(() -> {
             if (steps != null && !steps.isEmpty()) {
                 // Get the latest step record for today
                 Step latestStep = steps.get(0);
@@ -169,7 +223,7 @@ public class StepCounterService extends Service implements SensorEventListener {
                 stepCount = 0;
                 startTime = System.currentTimeMillis();
             }
-        });
+        }));
     }
 
     private void scheduleMidnightReset() {
@@ -225,21 +279,14 @@ public class StepCounterService extends Service implements SensorEventListener {
             calendar.set(Calendar.SECOND, 59);
 
             // Calculate metrics
-            float height = userPreferences.getHeight();
-            float weight = userPreferences.getWeight();
-
-            // Default values if user data not available
-            if (height <= 0) height = 170;
-            if (weight <= 0) weight = 70;
-
-            double stepLength = 0.415 * height / 100;
-            double distance = stepCount * stepLength / 1000;
-            double calories = weight * distance;
-            long duration = calculateDurationFromSteps(stepCount);
+            UserProfile profile = userPreferences.getProfile();
+            double distance = profile.distanceKm(stepCount);
+            double calories = profile.calories(stepCount);
+            long duration = profile.durationMillis(stepCount);
 
-            // Save final data for the day
-            Step finalStep = new Step(calendar.getTimeInMillis(), stepCount, distance, calories, duration);
-            repository.insert(finalStep);
+            // Save final data for the day, replacing anything still pending
+            stepWriter.offer(calendar.getTimeInMillis(), stepCount, distance, calories, duration);
+            stepWriter.flush();
 
             Log.d(TAG, "Saved final step data for previous day: " + stepCount + " steps");
         }
@@ -250,6 +297,7 @@ public class StepCounterService extends Service implements SensorEventListener {
         pausedStepCount = 0;
         startTime = System.currentTimeMillis();
         pausedTime = 0;
+        publishSnapshot();
 
         // Update notification
         updateNotification();
@@ -275,6 +323,7 @@ public class StepCounterService extends Service implements SensorEventListener {
                     break;
                 case ACTION_PAUSE_TRACKING:
                     isPaused = true;
+                    pipeline.post(stepWriter::flush);
                     saveTrackingState();
                     break;
                 case ACTION_RESUME_TRACKING:
@@ -287,12 +336,14 @@ public class StepCounterService extends Service implements SensorEventListener {
                     saveTrackingState();
                     break;
                 case ACTION_RESET_TRACKING:
-                    resetSteps();
+                    pipeline.post(this::resetSteps);
                     break;
                 case ACTION_UPDATE_NOTIFICATION:
                     updateNotification();
                     break;
             }
+            // Let subscribers see the new tracking state, in order with the step updates
+            pipeline.post(this::publishSnapshot);
         }
 
         return START_STICKY;
@@ -309,19 +360,16 @@ public class StepCounterService extends Service implements SensorEventListener {
         isPaused = false;
 
         // Check if we need to reset for a new day
-        checkForDayChange();
+        pipeline.post(this::checkForDayChange);
 
         // Start as foreground service with notification
-        startForeground(NOTIFICATION_ID, createNotification());
+        startForeground(NOTIFICATION_ID, notificationRenderer.build(stepCount, isPaused));
 
         // Register sensor listener
         registerSensorListeners();
 
-        // Acquire wake lock
-        if (!wakeLock.isHeld()) {
-            wakeLock.acquire();
-            Log.d(TAG, "Acquired wake lock");
-        }
+        // Acquire wake lock unless the hardware is batching for us
+        updateWakeLock();
     }
 
     private void pauseTracking() {
@@ -340,7 +388,7 @@ public class StepCounterService extends Service implements SensorEventListener {
         pausedTime = System.currentTimeMillis() - startTime;
 
         // Unregister sensor listener to save battery
-        sensorManager.unregisterListener(this);
+        pipeline.unregister(this);
         Log.d(TAG, "Unregistered sensor listeners");
 
         // Update notification
@@ -357,7 +405,7 @@ public class StepCounterService extends Service implements SensorEventListener {
         isPaused = false;
 
         // Check if we need to reset for a new day
-        checkForDayChange();
+        pipeline.post(this::checkForDayChange);
 
         // Reset the initial step count to force re-initialization with the current sensor value
         initialStepCount = -1;
@@ -367,20 +415,58 @@ public class StepCounterService extends Service implements SensorEventListener {
 
         // Register sensor listeners again
         registerSensorListeners();
+        updateWakeLock();
 
         // Update notification
         updateNotification();
     }
 
     private void registerSensorListeners() {
+        isBatching = false;
+
         if (useAccelerometer) {
+            // Accelerometer step detection needs every sample, so it is never batched,
+            // and a rate fast enough to resolve each step peak
             if (accelerometer != null) {
-                sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_NORMAL);
+                pipeline.register(this, accelerometer, SensorManager.SENSOR_DELAY_GAME);
                 Log.d(TAG, "Registered accelerometer listener");
             }
         } else if (stepSensor != null) {
-            sensorManager.registerListener(this, stepSensor, SensorManager.SENSOR_DELAY_NORMAL);
-            Log.d(TAG, "Registered step counter listener");
+            if (canBatchStepCounter()) {
+                isBatching = pipeline.register(this, stepSensor,
+                        SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US);
+                Log.d(TAG, "Registered batched step counter listener: " + isBatching);
+            }
+            if (!isBatching) {
+                pipeline.register(this, stepSensor, SensorManager.SENSOR_DELAY_NORMAL);
+                Log.d(TAG, "Registered step counter listener");
+            }
+        }
+    }
+
+    // The step counter is cumulative, so events dropped while the CPU sleeps lose no steps
+    private boolean canBatchStepCounter() {
+        return userPreferences.isLowPowerTrackingEnabled()
+                && stepSensor.getFifoMaxEventCount() > 0;
+    }
+
+    private void updateWakeLock() {
+        boolean needed = isTracking && !isBatching;
+        if (needed && !wakeLock.isHeld()) {
+            wakeLock.acquire();
+            Log.d(TAG, "Acquired wake lock");
+        } else if (!needed && wakeLock.isHeld()) {
+            wakeLock.release();
+            Log.d(TAG, "Released wake lock");
+        }
+    }
+
+    /**
+     * Deliver any steps still waiting in the sensor FIFO, e.g. when the UI becomes visible.
+     */
+    public void requestFlush() {
+        if (isBatching) {
+            pipeline.flush(this);
         }
     }
 
@@ -395,7 +481,7 @@ public class StepCounterService extends Service implements SensorEventListener {
         isPaused = false;
 
         // Unregister sensor listener
-        sensorManager.unregisterListener(this);
+        pipeline.unregister(this);
         Log.d(TAG, "Unregistered sensor listeners");
 
         // Release wake lock
@@ -404,8 +490,11 @@ public class StepCounterService extends Service implements SensorEventListener {
             Log.d(TAG, "Released wake lock");
         }
 
-        // Save final step data
-        updateStepData();
+        // Save final step data, after any sensor events still queued
+        pipeline.post(() -> {
+            updateStepData();
+            stepWriter.flush();
+        });
 
         // Stop foreground service
         stopForeground(true);
@@ -423,8 +512,9 @@ public class StepCounterService extends Service implements SensorEventListener {
         startTime = System.currentTimeMillis();
         pausedTime = 0;
 
-        // Update step data in database
+        // Update step data in database right away
         updateStepData();
+        stepWriter.flush();
 
         // Update notification
         updateNotification();
@@ -432,9 +522,24 @@ public class StepCounterService extends Service implements SensorEventListener {
         // Broadcast that steps have been reset
         Intent broadcastIntent = new Intent("com.example.mobigait.STEPS_RESET");
         sendBroadcast(broadcastIntent);
+    }
 
-        // Also broadcast the step update
-        broadcastStepUpdate();
+    // The step history was deleted: count from zero and drop the old count still waiting to be written
+    private void onStepsDeleted(int generation) {
+        Log.d(TAG, "Step history deleted, counting from zero");
+
+        stepCount = 0;
+        initialStepCount = -1; // rebase on the next hardware counter reading
+        pausedStepCount = 0;
+        startTime = System.currentTimeMillis();
+        pausedTime = 0;
+
+        pipeline.removeCallbacks(pendingFlush);
+        flushScheduled = false;
+        stepWriter.reset(generation);
+
+        publishSnapshot();
+        updateNotification();
     }
 
     @Override
@@ -468,96 +573,49 @@ public class StepCounterService extends Service implements SensorEventListener {
     }
 
     private void detectStepWithAccelerometer(SensorEvent event) {
-        // Calculate magnitude of acceleration
-        float x = event.values[0];
-        float y = event.values[1];
-        float z = event.values[2];
-        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
-
-        // Get current time in nanoseconds
-        long now = event.timestamp;
-
-        // Check if this is a step (peak in acceleration)
-        if (magnitude > STEP_THRESHOLD && lastMagnitude <= STEP_THRESHOLD
-                && now - lastStepTime > STEP_DELAY_NS) {
+        // Steps are peaks of the vertical acceleration, whatever the phone's orientation
+        fusion.update(event.values[0], event.values[1], event.values[2], event.timestamp);
+
+        if (stepDetector.update(fusion.getVertical(), event.timestamp)) {
             // Count as a step
             stepCount++;
-            lastStepTime = now;
             Log.d(TAG, "Step detected with accelerometer, count: " + stepCount);
             updateStepData();
         }
-
-        // Save current magnitude for next comparison
-        lastMagnitude = magnitude;
     }
 
     private void updateStepData() {
-        // Calculate distance based on step count and user height
-        float height = userPreferences.getHeight();
-        float weight = userPreferences.getWeight();
-
-        // Default values if user data not available
-        if (height <= 0) height = 170;
-        if (weight <= 0) weight = 70;
-
-        // Calculate step length based on height (approximate formula)
-        double stepLength = 0.415 * height / 100; // in meters
-
-        // Calculate distance in kilometers
-        double distance = stepCount * stepLength / 1000;
-
-        // Calculate calories burned (simple approximation)
-        double calories = weight * distance;
-
-        // Calculate duration based on steps (100 steps = 1 minute)
-        long duration = calculateDurationFromSteps(stepCount);
-
-        // Create Step object
-        Step step = new Step(System.currentTimeMillis(), stepCount, distance, calories, duration);
-
-        // Save to database
-        repository.insert(step);
-
-        Log.d(TAG, "Saved step data: count=" + stepCount + ", distance=" + distance +
-                ", calories=" + calories + ", duration=" + duration);
+        // The profile is cached and kept current by UserPreferences, so this reads no preferences
+        UserProfile profile = userPreferences.getProfile();
+        double distance = profile.distanceKm(stepCount);
+        double calories = profile.calories(stepCount);
+        long duration = profile.durationMillis(stepCount);
+
+        // Screens read today's totals from the snapshot stream; the database only needs the coalesced writes
+        long now = System.currentTimeMillis();
+        publishSnapshot(now, distance, calories, duration);
+
+        // Save to database, coalescing frequent updates into fewer writes
+        if (!stepWriter.offer(now, stepCount, distance, calories, duration)
+                && !flushScheduled) {
+            flushScheduled = true;
+            pipeline.postDelayed(pendingFlush, stepWriter.getMaxDelayMs());
+        }
 
         // Update notification
         updateNotification();
-
-        // Broadcast step update
-        broadcastStepUpdate();
     }
 
-    private long calculateDurationFromSteps(int steps) {
-        // Convert to float for more accurate division
-        float minutesFloat = (float) steps / 100.0f;
-        // Convert to milliseconds (1 minute = 60,000 ms)
-        return (long) (minutesFloat * 60 * 1000);
+    // Publish the current state once; the repository hands it to every subscriber
+    private void publishSnapshot() {
+        UserProfile profile = userPreferences.getProfile();
+        publishSnapshot(System.currentTimeMillis(), profile.distanceKm(stepCount),
+                profile.calories(stepCount), profile.durationMillis(stepCount));
     }
 
-    private void broadcastStepUpdate() {
-        Intent intent = new Intent(ACTION_STEP_UPDATE);
-        intent.putExtra("steps", stepCount);
-        intent.putExtra("distance", calculateDistance(stepCount));
-        intent.putExtra("calories", calculateCalories(stepCount));
-        intent.putExtra("duration", calculateDurationFromSteps(stepCount));
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
-    }
-
-    private double calculateDistance(int steps) {
-        float height = userPreferences.getHeight();
-        if (height <= 0) height = 170;
-
-        double stepLength = 0.415 * height / 100; // in meters
-        return steps * stepLength / 1000; // in kilometers
-    }
-
-    private double calculateCalories(int steps) {
-        float weight = userPreferences.getWeight();
-        if (weight <= 0) weight = 70;
-
-        double distance = calculateDistance(steps);
-        return weight * distance;
+    private void publishSnapshot(long now, double distance, double calories, long duration) {
+        repository.publish(new StepSnapshot(DateUtils.toDayEpoch(now), stepCount, distance, calories,
+                duration, isTracking, isPaused));
     }
 
     private void createNotificationChannel() {
@@ -576,53 +634,9 @@ public class StepCounterService extends Service implements SensorEventListener {
         }
     }
 
-    private Notification createNotification() {
-        Intent notificationIntent = new Intent(this, MainActivity.class);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, notificationIntent, PendingIntent.FLAG_IMMUTABLE);
-
-        // Create notification with current step count
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setContentTitle("MobiGait Step Counter")
-                .setContentText(getNotificationText())
-                .setSmallIcon(R.drawable.ic_footprint)
-                .setContentIntent(pendingIntent)
-                .setPriority(NotificationCompat.PRIORITY_LOW)
-                .setOnlyAlertOnce(true);
-
-        // Add action buttons based on tracking state
-        if (isPaused) {
-            // Resume action
-            Intent resumeIntent = new Intent(this, StepCounterService.class);
-            resumeIntent.setAction(ACTION_RESUME_TRACKING);
-            PendingIntent resumePendingIntent = PendingIntent.getService(
-                    this, 1, resumeIntent, PendingIntent.FLAG_IMMUTABLE);
-            builder.addAction(R.drawable.ic_play, "Resume", resumePendingIntent);
-        } else {
-            // Pause action
-            Intent pauseIntent = new Intent(this, StepCounterService.class);
-            pauseIntent.setAction(ACTION_PAUSE_TRACKING);
-            PendingIntent pausePendingIntent = PendingIntent.getService(
-                    this, 2, pauseIntent, PendingIntent.FLAG_IMMUTABLE);
-            builder.addAction(R.drawable.ic_pause, "Pause", pausePendingIntent);
-        }
-
-        return builder.build();
-    }
-
-    private String getNotificationText() {
-        if (isPaused) {
-            return "Tracking paused: " + stepCount + " steps";
-        } else {
-            return "Tracking: " + stepCount + " steps";
-        }
-    }
-
+    // Cheap to call on every step: the renderer only re-posts changed text, at a limited rate
     private void updateNotification() {
-        NotificationManager notificationManager =
-                (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        notificationManager.notify(NOTIFICATION_ID, createNotification());
-        Log.d(TAG, "Updated notification with step count: " + stepCount);
+        notificationRenderer.update(stepCount, isPaused);
     }
 
     @Override
@@ -632,6 +646,8 @@ public class StepCounterService extends Service implements SensorEventListener {
 
     @Override
     public IBinder onBind(Intent intent) {
+        // A bound UI wants up-to-date numbers
+        requestFlush();
         return binder;
     }
 
@@ -639,25 +655,37 @@ public class StepCounterService extends Service implements SensorEventListener {
     public void onDestroy() {
         super.onDestroy();
 
+        resetSubscription.dispose();
+
         // Unregister sensor listener
-        sensorManager.unregisterListener(this);
+        pipeline.unregister(this);
 
         // Release wake lock if held
         if (wakeLock != null && wakeLock.isHeld()) {
             wakeLock.release();
         }
 
-        // Unregister broadcast receiver
+        // Unregister broadcast receivers, each on its own so one failure can't leak the other
         try {
             unregisterReceiver(midnightResetReceiver);
         } catch (Exception e) {
-            Log.e(TAG, "Error unregistering receiver: " + e.getMessage());
+            Log.e(TAG, "Error unregistering midnight receiver: " + e.getMessage());
+        }
+        try {
+            unregisterReceiver(screenOnReceiver);
+        } catch (Exception e) {
+            Log.e(TAG, "Error unregistering screen receiver: " + e.getMessage());
         }
 
-        // Remove handler callbacks
-        handler.removeCallbacks(dayChangeChecker);
+        // Stop the day change checker, write any pending steps and shut the pipeline down
+        pipeline.removeCallbacks(dayChangeChecker);
+        pipeline.removeCallbacks(pendingFlush);
+        pipeline.post(stepWriter::flush);
+        pipeline.quit();
+        notificationRenderer.cancelPending();
 
-        Log.d(TAG, "Service destroyed");
+        Log.d(TAG, "Service destroyed (notification " + notificationRenderer.getStats()
+                + "; " + AppExecutors.getInstance() + ")");
     }
 
     // Public methods for binding activities/fragments
@@ -666,15 +694,15 @@ public class StepCounterService extends Service implements SensorEventListener {
     }
 
     public double getDistance() {
-        return calculateDistance(stepCount);
+        return userPreferences.getProfile().distanceKm(stepCount);
     }
 
     public double getCalories() {
-        return calculateCalories(stepCount);
+        return userPreferences.getProfile().calories(stepCount);
     }
 
     public long getDuration() {
-        return calculateDurationFromSteps(stepCount);
+        return userPreferences.getProfile().durationMillis(stepCount);
     }
 
     public boolean isTracking() {
@@ -685,6 +713,10 @@ public class StepCounterService extends Service implements SensorEventListener {
         return isPaused;
     }
 
+    public StepWriteCoalescer.Stats getPersistenceStats() {
+        return stepWriter.getStats();
+    }
+
     private void saveTrackingState() {
         SharedPreferences prefs = getSharedPreferences("step_prefs", MODE_PRIVATE);
         prefs.edit().putBoolean("is_paused", isPaused).apply();
@@ -0,0 +1,187 @@
+package com.example.mobigait.sensor;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.example.mobigait.MainActivity;
+import com.example.mobigait.R;
+
+/**
+ * Keeps the step counter's ongoing notification up to date without posting it on every step.
+ * The builder, intents and actions are created once; a new notification is only posted
+ * when its text changes, and no more than once per minimum interval. An update that
+ * arrives too soon is held back and the latest one posted when the interval is up.
+ * Switching between paused and tracking is posted at once, so the action button never lags.
+ * Thread-safe.
+ */
+public class StepNotificationRenderer {
+    private static final String TAG = "StepNotification";
+
+    public static final long DEFAULT_MIN_INTERVAL_MS = 1000;
+
+    private final NotificationManager notificationManager;
+    private final Handler handler;
+    private final int notificationId;
+    private final long minIntervalMs;
+    private final NotificationCompat.Builder builder;
+    private final NotificationCompat.Action pauseAction;
+    private final NotificationCompat.Action resumeAction;
+
+    // What the posted notification shows
+    private String postedText;
+    private boolean postedPaused;
+    private long lastPostTime = 0;
+
+    // Latest state, waiting for the interval to pass
+    private String pendingText;
+    private boolean pendingPaused;
+    private boolean postScheduled = false;
+
+    // Statistics
+    private long requestCount = 0;
+    private long postCount = 0;
+    private long suppressedCount = 0;
+
+    private final Runnable deferredPost = this::postPending;
+
+    public StepNotificationRenderer(Service service, String channelId, int notificationId,
+                                    Handler handler, long minIntervalMs) {
+        this.notificationManager = (NotificationManager) service.getSystemService(Context.NOTIFICATION_SERVICE);
+        this.handler = handler;
+        this.notificationId = notificationId;
+        this.minIntervalMs = minIntervalMs;
+
+        PendingIntent contentIntent = PendingIntent.getActivity(
+                service, 0, new Intent(service, MainActivity.class), PendingIntent.FLAG_IMMUTABLE);
+
+        Intent resumeIntent = new Intent(service, StepCounterService.class);
+        resumeIntent.setAction(StepCounterService.ACTION_RESUME_TRACKING);
+        resumeAction = new NotificationCompat.Action(R.drawable.ic_play, "Resume",
+                PendingIntent.getService(service, 1, resumeIntent, PendingIntent.FLAG_IMMUTABLE));
+
+        Intent pauseIntent = new Intent(service, StepCounterService.class);
+        pauseIntent.setAction(StepCounterService.ACTION_PAUSE_TRACKING);
+        pauseAction = new NotificationCompat.Action(R.drawable.ic_pause, "Pause",
+                PendingIntent.getService(service, 2, pauseIntent, PendingIntent.FLAG_IMMUTABLE));
+
+        builder = new NotificationCompat.Builder(service, channelId)
+                .setContentTitle("MobiGait Step Counter")
+                .setSmallIcon(R.drawable.ic_footprint)
+                .setContentIntent(contentIntent)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOnlyAlertOnce(true);
+    }
+
+    /**
+     * Build the notification for {@code startForeground}; it counts as posted.
+     */
+    public synchronized Notification build(int steps, boolean paused) {
+        String text = textFor(steps, paused);
+        Notification notification = render(text, paused);
+        markPosted(text, paused);
+        return notification;
+    }
+
+    /**
+     * Show the given state, now or once the minimum interval has passed.
+     */
+    public synchronized void update(int steps, boolean paused) {
+        requestCount++;
+        pendingText = textFor(steps, paused);
+        pendingPaused = paused;
+
+        if (postedText != null && paused != postedPaused) {
+            // The user just pressed pause or resume
+            handler.removeCallbacks(deferredPost);
+            if (postScheduled) suppressedCount++;
+            postPending();
+            return;
+        }
+        if (postScheduled) {
+            suppressedCount++; // replaces the state the scheduled post was going to show
+            return;
+        }
+        long wait = lastPostTime + minIntervalMs - SystemClock.elapsedRealtime();
+        if (wait > 0) {
+            postScheduled = true;
+            handler.postDelayed(deferredPost, wait);
+        } else {
+            postPending();
+        }
+    }
+
+    /**
+     * Drop any held-back update, e.g. when the service stops.
+     */
+    public synchronized void cancelPending() {
+        if (postScheduled) {
+            handler.removeCallbacks(deferredPost);
+            postScheduled = false;
+            suppressedCount++;
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(requestCount, postCount, suppressedCount);
+    }
+
+    private synchronized void postPending() {
+        postScheduled = false;
+        if (pendingText == null) return;
+        if (pendingText.equals(postedText) && pendingPaused == postedPaused) {
+            suppressedCount++; // the notification already shows this
+            return;
+        }
+        notificationManager.notify(notificationId, render(pendingText, pendingPaused));
+        markPosted(pendingText, pendingPaused);
+    }
+
+    private Notification render(String text, boolean paused) {
+        if (postedText == null || paused != postedPaused) {
+            builder.clearActions();
+            builder.addAction(paused ? resumeAction : pauseAction);
+        }
+        return builder.setContentText(text).build();
+    }
+
+    private void markPosted(String text, boolean paused) {
+        postedText = text;
+        postedPaused = paused;
+        lastPostTime = SystemClock.elapsedRealtime();
+        postCount++;
+        Log.d(TAG, "Posted notification: " + text + " (" + getStats() + ")");
+    }
+
+    private static String textFor(int steps, boolean paused) {
+        return (paused ? "Tracking paused: " : "Tracking: ") + steps + " steps";
+    }
+
+    /**
+     * Snapshot of how many updates were asked for, posted to the system, and suppressed.
+     */
+    public static class Stats {
+        public final long requests;
+        public final long posts;
+        public final long suppressed;
+
+        Stats(long requests, long posts, long suppressed) {
+            this.requests = requests;
+            this.posts = posts;
+            this.suppressed = suppressed;
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", posts=" + posts + ", suppressed=" + suppressed;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.mobigait.utils;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The process-wide background threads, shared by every repository, view model and service.
+ * <ul>
+ * <li>DB write: one thread, so writes reach SQLite in the order they were submitted</li>
+ * <li>DB read: a small pool for queries; Room also runs its LiveData queries here</li>
+ * <li>compute: background-priority threads for CPU work</li>
+ * <li>I/O: one thread for long file jobs such as export and import, so they never hold up
+ * the compute lane</li>
+ * </ul>
+ * The write and read queues are unbounded: a write is never lost or run out of order, and
+ * never falls back to the caller's thread, which may be the main thread; and Room, which
+ * runs its LiveData and invalidation queries on the read lane, does not handle rejection.
+ * The compute and I/O queues are bounded and reject tasks when full.
+ * Lane threads never exit, so nothing here needs shutting down.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int DB_READ_THREADS = 2;
+    private static final int COMPUTE_QUEUE = 64;
+    private static final int IO_QUEUE = 4;
+
+    private static volatile AppExecutors instance;
+
+    private final Lane dbWrite;
+    private final Lane dbRead;
+    private final Lane compute;
+    private final Lane io;
+
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppExecutors() {
+        int computeThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 3));
+        dbWrite = new Lane("db-write", 1, Integer.MAX_VALUE, Process.THREAD_PRIORITY_BACKGROUND);
+        dbRead = new Lane("db-read", DB_READ_THREADS, Integer.MAX_VALUE, Process.THREAD_PRIORITY_BACKGROUND);
+        compute = new Lane("compute", computeThreads, COMPUTE_QUEUE,
+                Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        io = new Lane("io", 1, IO_QUEUE, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    public Lane dbWrite() {
+        return dbWrite;
+    }
+
+    public Lane dbRead() {
+        return dbRead;
+    }
+
+    public Lane compute() {
+        return compute;
+    }
+
+    public Lane io() {
+        return io;
+    }
+
+    /**
+     * An executor that runs its tasks one at a time, in order, on the compute lane.
+     * For work on objects that are not thread-safe, such as an analyzer owned by a service.
+     * A task the full lane rejects is dropped: {@code execute} throws if it was the caller's
+     * own task, and a queued task rejected later is logged. Tasks queued behind a dropped
+     * one wait for the next {@code execute}.
+     */
+    public Executor newSerialComputeExecutor() {
+        return new SerialExecutor(compute);
+    }
+
+    @Override
+    public String toString() {
+        return dbWrite.getStats() + "; " + dbRead.getStats() + "; " + compute.getStats()
+                + "; " + io.getStats();
+    }
+
+    /**
+     * A fixed-size pool with named threads that counts what passes through it.
+     */
+    public static class Lane extends ThreadPoolExecutor {
+        private final String name;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+
+        Lane(String name, int threads, int queueCapacity, int priority) {
+            super(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    new NamedThreadFactory(name, priority));
+            this.name = name;
+            RejectedExecutionHandler abort = new AbortPolicy();
+            setRejectedExecutionHandler((task, executor) -> {
+                rejected.incrementAndGet();
+                Log.w(TAG, name + " queue full, rejecting task");
+                abort.rejectedExecution(task, executor);
+            });
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            submitted.incrementAndGet();
+            super.execute(command);
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            super.beforeExecute(thread, task);
+            startNanos.set(System.nanoTime());
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable error) {
+            super.afterExecute(task, error);
+            Long start = startNanos.get();
+            if (start != null) {
+                busyNanos.addAndGet(System.nanoTime() - start);
+                startNanos.remove();
+            }
+            completed.incrementAndGet();
+            if (error != null) {
+                Log.e(TAG, "Task on " + name + " failed", error);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Stats getStats() {
+            return new Stats(name, submitted.get(), completed.get(), rejected.get(),
+                    getQueue().size(), getActiveCount(), busyNanos.get() / 1_000_000);
+        }
+    }
+
+    /**
+     * Snapshot of one lane's counters.
+     */
+    public static class Stats {
+        public final String lane;
+        public final long submitted;
+        public final long completed;
+        public final long rejected;
+        public final int queued;
+        public final int active;
+        public final long busyMillis;
+
+        Stats(String lane, long submitted, long completed, long rejected,
+              int queued, int active, long busyMillis) {
+            this.lane = lane;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.queued = queued;
+            this.active = active;
+            this.busyMillis = busyMillis;
+        }
+
+        @Override
+        public String toString() {
+            return lane + ": submitted=" + submitted + ", completed=" + completed
+                    + ", rejected=" + rejected + ", queued=" + queued + ", active=" + active
+                    + ", busy=" + busyMillis + "ms";
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, "mobigait-" + name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    // Hands tasks to the lane one at a time, like AsyncTask.SERIAL_EXECUTOR
+    private static class SerialExecutor implements Executor {
+        private final Executor lane;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.offer(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                try {
+                    scheduleHead();
+                } catch (RejectedExecutionException e) {
+                    // Drop the caller's own task; anything queued ahead of it stays queued
+                    tasks.removeLast();
+                    throw e;
+                }
+            }
+        }
+
+        // Called on the lane when a task finishes; must not throw there
+        private synchronized void scheduleNext() {
+            try {
+                scheduleHead();
+            } catch (RejectedExecutionException e) {
+                // Drop only the task the lane refused, rather than draining the whole queue
+                tasks.poll();
+                Log.w(TAG, "Serial task dropped, compute queue full");
+            }
+        }
+
+        // On rejection the head is put back and nothing is active
+        private void scheduleHead() {
+            active = tasks.poll();
+            if (active != null) {
+                try {
+                    lane.execute(active);
+                } catch (RejectedExecutionException e) {
+                    tasks.addFirst(active);
+                    active = null;
+                    throw e;
+                }
+            }
+        }
+    }
+}
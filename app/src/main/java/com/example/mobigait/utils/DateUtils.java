@@ -2,8 +2,57 @@ package com.example.mobigait.utils;
 
 import java.util.Calendar;
 import java.util.Locale;
+import java.util.TimeZone;
 
 public class DateUtils {
+    public static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Number of whole local days between the epoch and the given time.
+     * Every timestamp within the same local day maps to the same value.
+     */
+    public static long toDayEpoch(long timestamp) {
+        long localTime = timestamp + TimeZone.getDefault().getOffset(timestamp);
+        return Math.floorDiv(localTime, DAY_MS);
+    }
+
+    /**
+     * Day epoch of the Monday of the week containing {@code dayEpoch} (ISO 8601 weeks).
+     * Weekly rollups are keyed by it, so it must not depend on the locale.
+     */
+    public static long weekStartDayEpoch(long dayEpoch) {
+        return dayEpoch - Math.floorMod(dayEpoch + 3, 7L); // day 0 was a Thursday
+    }
+
+    /**
+     * Month containing the day, as year * 12 + month (0-based).
+     */
+    public static int monthKey(long dayEpoch) {
+        Calendar calendar = dayEpochCalendar(dayEpoch);
+        return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+    }
+
+    /**
+     * First and last day epoch of a month key.
+     */
+    public static long[] monthDayRange(int monthKey) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(monthKey / 12, monthKey % 12, 1);
+        long firstDay = calendar.getTimeInMillis() / DAY_MS;
+        calendar.add(Calendar.MONTH, 1);
+        long lastDay = calendar.getTimeInMillis() / DAY_MS - 1;
+        return new long[]{firstDay, lastDay};
+    }
+
+    /**
+     * A UTC calendar positioned on the day, so its fields read as that local date.
+     */
+    public static Calendar dayEpochCalendar(long dayEpoch) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(dayEpoch * DAY_MS);
+        return calendar;
+    }
 
     public static long[] getTodayTimeRange() {
         Calendar calendar = Calendar.getInstance();
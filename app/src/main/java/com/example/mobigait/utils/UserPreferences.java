@@ -3,6 +3,8 @@ package com.example.mobigait.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.example.mobigait.model.UserProfile;
+
 public class UserPreferences {
     private static final String PREF_NAME = "user_preferences";
     private static final String KEY_FIRST_TIME = "first_time";
@@ -16,6 +18,13 @@ public class UserPreferences {
     private static final String KEY_SENSOR_THRESHOLD = "sensor_threshold";
     private static final String KEY_STEP_COUNT = "step_count";
     private static final String KEY_TRACKING_ACTIVE = "tracking_active";
+    private static final String KEY_LOW_POWER_TRACKING = "low_power_tracking";
+    private static final String KEY_RAW_RECORDING = "raw_recording";
+
+    // Shared by every instance and rebuilt whenever a value it depends on changes.
+    // The listener is held here because SharedPreferences only keeps weak references to listeners.
+    private static volatile UserProfile profile;
+    private static SharedPreferences.OnSharedPreferenceChangeListener profileListener;
 
     private final SharedPreferences preferences;
 
@@ -23,6 +32,32 @@ public class UserPreferences {
         preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
     }
 
+    /**
+     * The current user profile, read from the preferences once and kept up to date
+     * as height, weight or gender change. Cheap enough to call on every step.
+     */
+    public UserProfile getProfile() {
+        UserProfile current = profile;
+        if (current != null) return current;
+        synchronized (UserPreferences.class) {
+            if (profile == null) {
+                profileListener = (prefs, key) -> {
+                    // A null key means the preferences were cleared
+                    if (key == null || KEY_HEIGHT.equals(key) || KEY_WEIGHT.equals(key) || KEY_GENDER.equals(key)) {
+                        profile = readProfile();
+                    }
+                };
+                preferences.registerOnSharedPreferenceChangeListener(profileListener);
+                profile = readProfile();
+            }
+            return profile;
+        }
+    }
+
+    private UserProfile readProfile() {
+        return new UserProfile(getHeight(), getWeight(), getGender());
+    }
+
     public boolean isFirstTime() {
         return preferences.getBoolean(KEY_FIRST_TIME, true);
     }
@@ -121,6 +156,23 @@ public class UserPreferences {
         return preferences.getBoolean(KEY_TRACKING_ACTIVE, false);
     }
 
+    public boolean isLowPowerTrackingEnabled() {
+        return preferences.getBoolean(KEY_LOW_POWER_TRACKING, true);
+    }
+
+    public void setLowPowerTrackingEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_LOW_POWER_TRACKING, enabled).apply();
+    }
+
+    // Keep raw accelerometer/gyroscope samples of each gait session for later re-analysis
+    public boolean isRawRecordingEnabled() {
+        return preferences.getBoolean(KEY_RAW_RECORDING, false);
+    }
+
+    public void setRawRecordingEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_RAW_RECORDING, enabled).apply();
+    }
+
     /**
      * Reset all user preferences to default values
      */
@@ -145,6 +197,8 @@ public class UserPreferences {
         // Reset tracking data
         editor.putInt(KEY_STEP_COUNT, 0);
         editor.putBoolean(KEY_TRACKING_ACTIVE, false);
+        editor.putBoolean(KEY_LOW_POWER_TRACKING, true);
+        editor.putBoolean(KEY_RAW_RECORDING, false);
 
         // Apply all changes
         editor.apply();
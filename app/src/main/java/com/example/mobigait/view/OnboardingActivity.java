@@ -198,7 +198,7 @@ public class OnboardingActivity extends AppCompatActivity {
 
         // Save initial weight to the weight database
         Weight initialWeight = new Weight(System.currentTimeMillis(), weight);
-        WeightRepository weightRepository = new WeightRepository(getApplication());
+        WeightRepository weightRepository = WeightRepository.getInstance(getApplication());
         weightRepository.insert(initialWeight);
     }
 
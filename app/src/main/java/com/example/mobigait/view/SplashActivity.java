@@ -8,6 +8,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.mobigait.MainActivity;
 import com.example.mobigait.R;
+import com.example.mobigait.utils.AppExecutors;
 import com.example.mobigait.utils.UserPreferences;
 import com.example.mobigait.model.Weight;
 import com.example.mobigait.repository.WeightRepository;
@@ -55,9 +56,9 @@ public class SplashActivity extends AppCompatActivity {
     }
 
     private void checkAndInitializeWeightData(UserPreferences userPreferences) {
-        // Run this in a background thread
-        new Thread(() -> {
-            WeightRepository weightRepository = new WeightRepository(getApplication());
+        // Read on the DB read lane; the insert goes through the repository's write lane
+        WeightRepository weightRepository = WeightRepository.getInstance(getApplication());
+        AppExecutors.getInstance().dbRead().execute(() -> {
             List<Weight> weights = weightRepository.getAllWeightsSync();
 
             // If there's no weight data but user has a weight in preferences
@@ -66,6 +67,6 @@ public class SplashActivity extends AppCompatActivity {
                 Weight initialWeight = new Weight(System.currentTimeMillis(), userPreferences.getWeight());
                 weightRepository.insert(initialWeight);
             }
-        }).start();
+        });
     }
 }
@@ -632,7 +632,12 @@ public class HealthFragment extends Fragment {
                          "Cadence: " + String.format(Locale.getDefault(), "%.1f steps/min", gaitData.getCadence()) + "\n" +
                          "Symmetry Index: " + String.format(Locale.getDefault(), "%.1f%%", gaitData.getSymmetryIndex()) + "\n" +
                          "Step Variability: " + String.format(Locale.getDefault(), "%.1f ms", gaitData.getStepVariability()) + "\n" +
-                         "Step Length: " + String.format(Locale.getDefault(), "%.2f m", gaitData.getStepLength()) + "\n\n" +
+                         "Step Length: " + String.format(Locale.getDefault(), "%.2f m", gaitData.getStepLength()) + "\n" +
+                         "Step Frequency: " + String.format(Locale.getDefault(), "%.2f Hz", gaitData.getDominantFrequency()) + "\n" +
+                         "Harmonic Ratio: " + String.format(Locale.getDefault(), "%.2f", gaitData.getHarmonicRatio()) + "\n" +
+                         "Regularity: " + String.format(Locale.getDefault(), "%.0f%%", gaitData.getSpectralRegularity() * 100) + "\n" +
+                         "Step / Stride Regularity: " + String.format(Locale.getDefault(), "%.2f / %.2f",
+                                 gaitData.getStepRegularity(), gaitData.getStrideRegularity()) + "\n\n" +
                          "Interpretation:\n" + getGaitInterpretation(gaitData);
 
         builder.setMessage(message);
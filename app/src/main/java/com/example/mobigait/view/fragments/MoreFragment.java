@@ -16,12 +16,18 @@ import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.mobigait.R;
+import com.example.mobigait.export.ArchiveExporter;
+import com.example.mobigait.export.ArchiveFormat;
+import com.example.mobigait.export.ArchiveImporter;
+import com.example.mobigait.export.CsvExporter;
 import com.example.mobigait.utils.UserPreferences;
 import com.example.mobigait.viewmodel.MoreViewModel;
 
@@ -58,6 +64,11 @@ public class MoreFragment extends Fragment {
     private LinearLayout exportSetting;
     private LinearLayout clearDataSetting;
 
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+                if (uri != null) importArchive(uri);
+            });
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -125,7 +136,7 @@ public class MoreFragment extends Fragment {
         aboutSetting.setOnClickListener(v -> showAboutDialog());
 
         // Data Management
-        exportSetting.setOnClickListener(v -> exportData());
+        exportSetting.setOnClickListener(v -> showExportDialog());
         clearDataSetting.setOnClickListener(v -> showClearDataDialog());
     }
 
@@ -432,43 +443,127 @@ public class MoreFragment extends Fragment {
     }
 
     // Data Management methods
-    private void exportData() {
+    private void showExportDialog() {
+        String[] options = {"Export as CSV", "Export backup archive", "Import backup archive"};
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Export Data")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        exportData(false);
+                    } else if (which == 1) {
+                        exportData(true);
+                    } else {
+                        importLauncher.launch(new String[]{"*/*"});
+                    }
+                })
+                .show();
+    }
+
+    private void exportData(boolean archive) {
         // Show progress dialog
         AlertDialog progressDialog = new AlertDialog.Builder(requireContext())
                 .setTitle("Exporting Data")
                 .setMessage("Please wait...")
                 .setCancelable(false)
                 .create();
-        progressDialog.show();
 
         // Export data in background
-        viewModel.exportData(requireContext(), (success, filePath) -> {
-            progressDialog.dismiss();
+        MoreViewModel.ExportCallback callback = new MoreViewModel.ExportCallback() {
+            @Override
+            public void onExportProgress(long rowsWritten, long totalRows) {
+                progressDialog.setMessage("Exported " + rowsWritten + " of " + totalRows + " records...");
+            }
 
-            if (success) {
-                // Show success dialog with share option
-                new AlertDialog.Builder(requireContext())
-                        .setTitle("Export Successful")
-                        .setMessage("Data exported to:\n" + filePath)
-                        .setPositiveButton("Share", (dialog, which) -> {
-                            // Share the exported file
-                            Intent shareIntent = new Intent(Intent.ACTION_SEND);
-                            shareIntent.setType("text/csv");
-                            Uri fileUri = viewModel.getFileUri(requireContext(), filePath);
-                            shareIntent.putExtra(Intent.EXTRA_STREAM, fileUri);
-                            startActivity(Intent.createChooser(shareIntent, "Share exported data"));
-                        })
-                        .setNegativeButton("Close", null)
-                        .show();
-            } else {
-                // Show error dialog
+            @Override
+            public void onExportCancelled() {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), "Export cancelled", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onExportComplete(boolean success, String filePath) {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
+                showExportResult(success, filePath);
+            }
+        };
+
+        Runnable cancelAction;
+        if (archive) {
+            ArchiveExporter exporter = viewModel.exportArchive(requireContext(), callback);
+            cancelAction = exporter::cancel;
+        } else {
+            CsvExporter exporter = viewModel.exportData(requireContext(), callback);
+            cancelAction = exporter::cancel;
+        }
+        progressDialog.setButton(AlertDialog.BUTTON_NEGATIVE, "Cancel", (dialog, which) -> cancelAction.run());
+        progressDialog.show();
+    }
+
+    private void importArchive(Uri uri) {
+        AlertDialog progressDialog = new AlertDialog.Builder(requireContext())
+                .setTitle("Importing Data")
+                .setMessage("Please wait...")
+                .setCancelable(false)
+                .create();
+
+        ArchiveImporter importer = viewModel.importArchive(requireContext(), uri, new MoreViewModel.ImportCallback() {
+            @Override
+            public void onImportProgress(long bytesRead, long totalBytes) {
+                int percent = totalBytes > 0 ? (int) (bytesRead * 100 / totalBytes) : 0;
+                progressDialog.setMessage("Imported " + percent + "%...");
+            }
+
+            @Override
+            public void onImportCancelled() {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), "Import cancelled", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onImportComplete(boolean success, int recordsImported) {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
                 new AlertDialog.Builder(requireContext())
-                        .setTitle("Export Failed")
-                        .setMessage("Could not export data. Please try again.")
+                        .setTitle(success ? "Import Successful" : "Import Failed")
+                        .setMessage(success
+                                ? "Imported " + recordsImported + " records."
+                                : "This file is not a MobiGait backup archive or is damaged.")
                         .setPositiveButton("OK", null)
                         .show();
             }
         });
+        progressDialog.setButton(AlertDialog.BUTTON_NEGATIVE, "Cancel", (dialog, which) -> importer.cancel());
+        progressDialog.show();
+    }
+
+    private void showExportResult(boolean success, String filePath) {
+        if (success) {
+            // Show success dialog with share option
+            new AlertDialog.Builder(requireContext())
+                    .setTitle("Export Successful")
+                    .setMessage("Data exported to:\n" + filePath)
+                    .setPositiveButton("Share", (dialog, which) -> {
+                        // Share the exported file
+                        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+                        shareIntent.setType(filePath.endsWith(ArchiveFormat.FILE_EXTENSION)
+                                ? ArchiveFormat.MIME_TYPE : "text/csv");
+                        Uri fileUri = viewModel.getFileUri(requireContext(), filePath);
+                        shareIntent.putExtra(Intent.EXTRA_STREAM, fileUri);
+                        startActivity(Intent.createChooser(shareIntent, "Share exported data"));
+                    })
+                    .setNegativeButton("Close", null)
+                    .show();
+        } else {
+            // Show error dialog
+            new AlertDialog.Builder(requireContext())
+                    .setTitle("Export Failed")
+                    .setMessage("Could not export data. Please try again.")
+                    .setPositiveButton("OK", null)
+                    .show();
+        }
     }
 
     private void showClearDataDialog() {
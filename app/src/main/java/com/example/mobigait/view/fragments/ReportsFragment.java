@@ -13,8 +13,8 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.mobigait.R;
-import com.example.mobigait.model.Step;
-import com.example.mobigait.utils.DateUtils;
+import com.example.mobigait.model.DailySummary;
+import com.example.mobigait.model.ReportsSnapshot;
 import com.example.mobigait.viewmodel.ReportsViewModel;
 import com.github.mikephil.charting.charts.BarChart;
 import com.github.mikephil.charting.components.XAxis;
@@ -26,10 +26,7 @@ import com.github.mikephil.charting.formatter.ValueFormatter;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -119,41 +116,22 @@ public class ReportsFragment extends Fragment {
     }
 
     private void setupObservers() {
-        // Observe step data changes
-        viewModel.getStepData().observe(getViewLifecycleOwner(), this::updateChart);
+        // Chart and summary values all come from one snapshot
+        viewModel.getReportsSnapshot().observe(getViewLifecycleOwner(), snapshot -> {
+            if (snapshot == null) return;
 
-        // Observe total steps
-        viewModel.getTotalSteps().observe(getViewLifecycleOwner(), total -> {
-            if (total != null) {
-                totalStepsValue.setText(String.format(Locale.getDefault(), "%,d", total));
-            } else {
-                totalStepsValue.setText("0");
-            }
-        });
-
-        // Observe average steps
-        viewModel.getAverageSteps().observe(getViewLifecycleOwner(), average -> {
-            if (average != null) {
-                averageStepsValue.setText(String.format(Locale.getDefault(), "%.0f", average));
-            } else {
-                averageStepsValue.setText("0");
-            }
-        });
+            updateChart(snapshot);
+            totalStepsValue.setText(String.format(Locale.getDefault(), "%,d", snapshot.getTotalSteps()));
+            averageStepsValue.setText(String.format(Locale.getDefault(), "%.0f", snapshot.getAverageSteps()));
 
-        // Observe goal met days
-        viewModel.getGoalMetDays().observe(getViewLifecycleOwner(), days -> {
-            if (days != null) {
-                int totalDays = viewModel.getSelectedTimeRange().getValue() == ReportsViewModel.TimeRange.WEEK ? 7 : 30;
-                goalMetValue.setText(String.format(Locale.getDefault(), "%d/%d", days, totalDays));
-            } else {
-                goalMetValue.setText("0/7");
-            }
+            int totalDays = (int) (snapshot.getLastDay() - snapshot.getFirstDay()) + 1;
+            goalMetValue.setText(String.format(Locale.getDefault(), "%d/%d", snapshot.getGoalMetDays(), totalDays));
         });
 
         // Observe metric changes to update chart
         viewModel.getSelectedMetric().observe(getViewLifecycleOwner(), metric -> {
-            if (viewModel.getStepData().getValue() != null) {
-                updateChart(viewModel.getStepData().getValue());
+            if (viewModel.getReportsSnapshot().getValue() != null) {
+                updateChart(viewModel.getReportsSnapshot().getValue());
             }
         });
 
@@ -185,7 +163,7 @@ public class ReportsFragment extends Fragment {
         // Set X-axis labels based on selected time range
         ReportsViewModel.TimeRange timeRange = viewModel.getSelectedTimeRange().getValue();
         if (timeRange == ReportsViewModel.TimeRange.WEEK) {
-            String[] weekDays = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+            String[] weekDays = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"}; // weeks start on Monday
             xAxis.setValueFormatter(new IndexAxisValueFormatter(weekDays));
             xAxis.setLabelCount(7);
         } else {
@@ -204,8 +182,9 @@ public class ReportsFragment extends Fragment {
         barChart.invalidate();
     }
 
-    private void updateChart(List<Step> steps) {
-        if (steps == null || steps.isEmpty()) {
+    private void updateChart(ReportsSnapshot snapshot) {
+        List<DailySummary> summaries = snapshot.getDays();
+        if (summaries == null || summaries.isEmpty()) {
             barChart.clear();
             barChart.invalidate();
             return;
@@ -215,45 +194,29 @@ public class ReportsFragment extends Fragment {
         ReportsViewModel.Metric metric = viewModel.getSelectedMetric().getValue();
         int goalSteps = viewModel.getStepGoal();
 
-        // Group data by day
+        // Place each day's totals in its chart slot, counted from the first day of the range
         Map<Integer, Float> dataByDay = new HashMap<>();
-        Calendar calendar = Calendar.getInstance();
-        SimpleDateFormat monthDayFormat = new SimpleDateFormat("d", Locale.getDefault());
+        int daysInRange = (int) (snapshot.getLastDay() - snapshot.getFirstDay()) + 1;
 
         // Initialize all days with zero
-        if (timeRange == ReportsViewModel.TimeRange.WEEK) {
-            for (int i = 0; i < 7; i++) {
-                dataByDay.put(i, 0f);
-            }
-        } else {
-            calendar.setTime(new Date());
-            int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-            for (int i = 1; i <= daysInMonth; i++) {
-                dataByDay.put(i, 0f);
-            }
+        for (int i = 0; i < daysInRange; i++) {
+            dataByDay.put(i, 0f);
         }
 
-        // Aggregate data by day
-        for (Step step : steps) {
-            calendar.setTimeInMillis(step.getTimestamp());
-            int day;
-
-            if (timeRange == ReportsViewModel.TimeRange.WEEK) {
-                day = calendar.get(Calendar.DAY_OF_WEEK) - 1; // 0 = Sunday, 6 = Saturday
-            } else {
-                day = calendar.get(Calendar.DAY_OF_MONTH); // 1-31
-            }
+        // Rows are already one per day
+        for (DailySummary summary : summaries) {
+            int day = (int) (summary.getDayEpoch() - snapshot.getFirstDay());
 
             float value = 0;
             switch (metric) {
                 case STEPS:
-                    value = step.getStepCount();
+                    value = summary.getStepCount();
                     break;
                 case DISTANCE:
-                    value = (float) step.getDistance();
+                    value = (float) summary.getDistance();
                     break;
                 case CALORIES:
-                    value = (float) step.getCalories();
+                    value = (float) summary.getCalories();
                     break;
             }
 
@@ -272,12 +235,9 @@ public class ReportsFragment extends Fragment {
             // Week labels are set in setupChart
         } else {
             // For month view, we need day numbers as labels
-            calendar.setTime(new Date());
-            int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-            for (int i = 1; i <= daysInMonth; i++) {
-                entries.add(new BarEntry(i - 1, dataByDay.getOrDefault(i, 0f)));
-                xLabels.add(String.valueOf(i));
+            for (int i = 0; i < daysInRange; i++) {
+                entries.add(new BarEntry(i, dataByDay.getOrDefault(i, 0f)));
+                xLabels.add(String.valueOf(i + 1));
             }
 
             // Set month day labels
@@ -3,11 +3,9 @@ package com.example.mobigait.view.fragments;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.app.AlertDialog;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.os.Bundle;
 import android.os.IBinder;
@@ -26,7 +24,6 @@ import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.navigation.Navigation;
 
 import com.example.mobigait.R;
@@ -84,9 +81,6 @@ public class TodayFragment extends Fragment {
             isPaused = stepService.isPaused();
             updatePauseButtonState();
 
-            // Update view model with current step count
-            viewModel.updateSteps(stepService.getStepCount());
-
             Log.d(TAG, "Service connected, tracking: " + isTracking + ", paused: " + isPaused + ", steps: " + stepService.getStepCount());
         }
 
@@ -97,37 +91,6 @@ public class TodayFragment extends Fragment {
         }
     };
 
-    // Broadcast receiver for step updates
-    private BroadcastReceiver stepUpdateReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            if (StepCounterService.ACTION_STEP_UPDATE.equals(intent.getAction())) {
-                int steps = intent.getIntExtra("steps", 0);
-                double distance = intent.getDoubleExtra("distance", 0);
-                double calories = intent.getDoubleExtra("calories", 0);
-                long duration = intent.getLongExtra("duration", 0);
-                boolean isTracking = intent.getBooleanExtra("isTracking", true);
-                boolean isPaused = intent.getBooleanExtra("isPaused", false);
-
-                Log.d(TAG, "Received step update: " + steps + " steps, " + distance + " km, " +
-                        calories + " kcal, " + duration + " ms, tracking: " + isTracking +
-                        ", paused: " + isPaused);
-
-                // Update ViewModel
-                viewModel.updateSteps(steps);
-                viewModel.updateDistance(distance);
-                viewModel.updateCalories(calories);
-                viewModel.updateDuration(duration);
-                viewModel.setTracking(!isPaused);
-
-                // Update UI
-                TodayFragment.this.isTracking = isTracking && !isPaused;
-                TodayFragment.this.isPaused = isPaused;
-                updatePauseButtonState();
-            }
-        }
-    };
-
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -184,13 +147,9 @@ public class TodayFragment extends Fragment {
         // Set up button click listeners
         setupClickListeners();
 
-        // Observe ViewModel data
+        // Observe ViewModel data; step updates reach it from the service's snapshot stream
         observeViewModel();
 
-        // Register broadcast receiver
-        IntentFilter filter = new IntentFilter(StepCounterService.ACTION_STEP_UPDATE);
-        LocalBroadcastManager.getInstance(requireContext()).registerReceiver(stepUpdateReceiver, filter);
-
         // Bind to the service
         bindStepService();
     }
@@ -453,23 +412,6 @@ public class TodayFragment extends Fragment {
         if (!isBound) {
             bindStepService();
         }
-
-        // Register broadcast receiver
-        IntentFilter filter = new IntentFilter(StepCounterService.ACTION_STEP_UPDATE);
-        LocalBroadcastManager.getInstance(requireContext()).registerReceiver(stepUpdateReceiver, filter);
-    }
-
-    @Override
-    public void onPause() {
-        super.onPause();
-        // Don't unbind here to keep the service running
-
-        // Unregister broadcast receiver to avoid leaks
-        try {
-            LocalBroadcastManager.getInstance(requireContext()).unregisterReceiver(stepUpdateReceiver);
-        } catch (Exception e) {
-            Log.e(TAG, "Error unregistering receiver", e);
-        }
     }
 
     @Override
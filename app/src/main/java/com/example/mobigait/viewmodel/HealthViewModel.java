@@ -46,9 +46,9 @@ public class HealthViewModel extends AndroidViewModel {
 
     public HealthViewModel(@NonNull Application application) {
         super(application);
-        weightRepository = new WeightRepository(application);
-        stepRepository = new StepRepository(application);
-        gaitRepository = new GaitRepository(application);
+        weightRepository = WeightRepository.getInstance(application);
+        stepRepository = StepRepository.getInstance(application);
+        gaitRepository = GaitRepository.getInstance(application);
         userPreferences = new UserPreferences(application);
 
         // Get the latest weight as LiveData
@@ -225,11 +225,8 @@ public class HealthViewModel extends AndroidViewModel {
         }
     }
 
-    // Add this method to the HealthViewModel class
     public void deleteAllGaitData() {
-        // Execute on a background thread
-        new Thread(() -> {
-            gaitRepository.deleteAllGaitData();
-        }).start();
+        // The repository runs the delete on the DB write lane
+        gaitRepository.deleteAllGaitData();
     }
 }
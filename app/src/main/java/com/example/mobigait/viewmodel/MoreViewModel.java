@@ -2,46 +2,53 @@ package com.example.mobigait.viewmodel;
 
 import android.app.Application;
 import android.content.Context;
-import android.content.Intent;
 import android.net.Uri;
 import android.os.Environment;
+import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.FileProvider;
 import androidx.lifecycle.AndroidViewModel;
 
-import com.example.mobigait.model.Step;
+import com.example.mobigait.export.ArchiveExporter;
+import com.example.mobigait.export.ArchiveFormat;
+import com.example.mobigait.export.ArchiveImporter;
+import com.example.mobigait.export.CsvExporter;
 import com.example.mobigait.model.Weight;
+import com.example.mobigait.repository.GaitRepository;
+import com.example.mobigait.repository.RawSessionRepository;
 import com.example.mobigait.repository.StepRepository;
 import com.example.mobigait.repository.WeightRepository;
-import com.example.mobigait.sensor.StepCounterService;
+import com.example.mobigait.utils.AppExecutors;
 import com.example.mobigait.utils.UserPreferences;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class MoreViewModel extends AndroidViewModel {
     private static final String TAG = "MoreViewModel";
 
     private final StepRepository stepRepository;
     private final WeightRepository weightRepository;
+    private final GaitRepository gaitRepository;
+    private final RawSessionRepository rawSessionRepository;
     private final UserPreferences userPreferences;
-    private final ExecutorService executorService;
+    private final AppExecutors executors;
 
     public MoreViewModel(@NonNull Application application) {
         super(application);
-        stepRepository = new StepRepository(application);
-        weightRepository = new WeightRepository(application);
+        stepRepository = StepRepository.getInstance(application);
+        weightRepository = WeightRepository.getInstance(application);
+        gaitRepository = GaitRepository.getInstance(application);
+        rawSessionRepository = RawSessionRepository.getInstance(application);
         userPreferences = new UserPreferences(application);
-        executorService = Executors.newSingleThreadExecutor();
+        executors = AppExecutors.getInstance();
     }
 
     public void updateWeight(float weight) {
@@ -55,71 +62,133 @@ public class MoreViewModel extends AndroidViewModel {
         userPreferences.setSensorThreshold(threshold);
     }
 
-    public void exportData(Context context, ExportCallback callback) {
-        executorService.execute(() -> {
+    /**
+     * Export all steps and weights to a CSV file in the background.
+     * The returned exporter can be used to cancel the export.
+     */
+    public CsvExporter exportData(Context context, ExportCallback callback) {
+        CsvExporter exporter = new CsvExporter(stepRepository, weightRepository);
+        android.os.Handler mainHandler = new android.os.Handler(context.getMainLooper());
+
+        boolean started = startIoJob(() -> {
             try {
-                // Create directory if it doesn't exist
-                File exportDir = new File(context.getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), "MobiGait");
-                if (!exportDir.exists()) {
-                    exportDir.mkdirs();
-                }
+                File file = createExportFile(context, ".csv");
+                boolean completed = exporter.export(file, (rowsWritten, totalRows) ->
+                        mainHandler.post(() -> callback.onExportProgress(rowsWritten, totalRows)));
 
-                // Create file with timestamp
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault());
-                String timestamp = dateFormat.format(new Date());
-                File file = new File(exportDir, "mobigait_export_" + timestamp + ".csv");
-
-                // Write data to file
-                FileWriter writer = new FileWriter(file);
-
-                // Write header
-                writer.append("Date,Time,Steps,Distance (km),Calories,Duration (ms),Weight (kg)\n");
-
-                // Get all step data
-                List<Step> steps = stepRepository.getAllStepsSync();
-
-                // Get all weight data
-                List<Weight> weights = weightRepository.getAllWeightsSync();
-
-                // Format for date and time
-                SimpleDateFormat datePart = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                SimpleDateFormat timePart = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
-
-                // Write step data
-                for (Step step : steps) {
-                    Date date = new Date(step.getTimestamp());
-                    writer.append(datePart.format(date)).append(",");
-                    writer.append(timePart.format(date)).append(",");
-                    writer.append(String.valueOf(step.getStepCount())).append(",");
-                    writer.append(String.valueOf(step.getDistance())).append(",");
-                    writer.append(String.valueOf(step.getCalories())).append(",");
-                    writer.append(String.valueOf(step.getDuration())).append(",");
-                    writer.append("\n");
+                // Callback on main thread
+                if (completed) {
+                    mainHandler.post(() -> callback.onExportComplete(true, file.getAbsolutePath()));
+                } else {
+                    mainHandler.post(callback::onExportCancelled);
                 }
 
-                // Write weight data
-                for (Weight weight : weights) {
-                    Date date = new Date(weight.getTimestamp());
-                    writer.append(datePart.format(date)).append(",");
-                    writer.append(timePart.format(date)).append(",");
-                    writer.append(",,,,"); // Empty columns for steps, distance, calories, duration
-                    writer.append(String.valueOf(weight.getWeight())).append("\n");
-                }
+            } catch (IOException | RuntimeException e) {
+                // Runtime failures too (e.g. a full disk in SQLite), so the callback always runs
+                Log.e(TAG, "Error exporting data", e);
+                // Callback on main thread
+                mainHandler.post(() -> callback.onExportComplete(false, null));
+            }
+        });
+        if (!started) {
+            mainHandler.post(() -> callback.onExportComplete(false, null));
+        }
+        return exporter;
+    }
 
-                writer.flush();
-                writer.close();
+    /**
+     * Export steps, weights and gait data to a binary archive in the background.
+     * The returned exporter can be used to cancel the export.
+     */
+    public ArchiveExporter exportArchive(Context context, ExportCallback callback) {
+        ArchiveExporter exporter = new ArchiveExporter(stepRepository, weightRepository, gaitRepository);
+        android.os.Handler mainHandler = new android.os.Handler(context.getMainLooper());
 
-                // Callback on main thread
-                android.os.Handler mainHandler = new android.os.Handler(context.getMainLooper());
-                mainHandler.post(() -> callback.onExportComplete(true, file.getAbsolutePath()));
+        boolean started = startIoJob(() -> {
+            try {
+                File file = createExportFile(context, ArchiveFormat.FILE_EXTENSION);
+                boolean completed = exporter.export(file, (rowsWritten, totalRows) ->
+                        mainHandler.post(() -> callback.onExportProgress(rowsWritten, totalRows)));
+
+                if (completed) {
+                    mainHandler.post(() -> callback.onExportComplete(true, file.getAbsolutePath()));
+                } else {
+                    mainHandler.post(callback::onExportCancelled);
+                }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Error exporting data", e);
-                // Callback on main thread
-                android.os.Handler mainHandler = new android.os.Handler(context.getMainLooper());
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error exporting archive", e);
                 mainHandler.post(() -> callback.onExportComplete(false, null));
             }
         });
+        if (!started) {
+            mainHandler.post(() -> callback.onExportComplete(false, null));
+        }
+        return exporter;
+    }
+
+    /**
+     * Import a binary archive picked by the user, in the background.
+     * The returned importer can be used to cancel the import.
+     */
+    public ArchiveImporter importArchive(Context context, Uri uri, ImportCallback callback) {
+        ArchiveImporter importer = new ArchiveImporter(stepRepository, weightRepository, gaitRepository);
+        android.os.Handler mainHandler = new android.os.Handler(context.getMainLooper());
+
+        boolean started = startIoJob(() -> {
+            try {
+                ParcelFileDescriptor descriptor = context.getContentResolver().openFileDescriptor(uri, "r");
+                if (descriptor == null) {
+                    throw new IOException("Cannot open " + uri);
+                }
+                boolean completed;
+                try (FileInputStream stream = new ParcelFileDescriptor.AutoCloseInputStream(descriptor)) {
+                    completed = importer.importFrom(stream.getChannel(), (bytesRead, totalBytes) ->
+                            mainHandler.post(() -> callback.onImportProgress(bytesRead, totalBytes)));
+                }
+
+                if (completed) {
+                    int records = importer.getStepsImported() + importer.getWeightsImported()
+                            + importer.getGaitDataImported();
+                    mainHandler.post(() -> callback.onImportComplete(true, records));
+                } else {
+                    mainHandler.post(callback::onImportCancelled);
+                }
+
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error importing archive", e);
+                mainHandler.post(() -> callback.onImportComplete(false, 0));
+            }
+        });
+        if (!started) {
+            mainHandler.post(() -> callback.onImportComplete(false, 0));
+        }
+        return importer;
+    }
+
+    // Long jobs that mix queries, encoding and file I/O get their own lane. Called from the
+    // main thread, so a full lane fails the job instead of throwing.
+    private boolean startIoJob(Runnable job) {
+        try {
+            executors.io().execute(job);
+            return true;
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "I/O lane full, not starting job", e);
+            return false;
+        }
+    }
+
+    // New file named after the current time in the app's documents folder
+    private File createExportFile(Context context, String extension) {
+        // Create directory if it doesn't exist
+        File exportDir = new File(context.getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), "MobiGait");
+        if (!exportDir.exists()) {
+            exportDir.mkdirs();
+        }
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US);
+        String timestamp = dateFormat.format(new Date());
+        return new File(exportDir, "mobigait_export_" + timestamp + extension);
     }
 
     public Uri getFileUri(Context context, String filePath) {
@@ -130,37 +199,40 @@ public class MoreViewModel extends AndroidViewModel {
     }
 
     public void clearAllData(ClearDataCallback callback) {
-        executorService.execute(() -> {
-            try {
-                // Clear step data
-                stepRepository.deleteAllSteps();
+        android.os.Handler mainHandler = new android.os.Handler(getApplication().getMainLooper());
+        try {
+            // The repositories queue their deletes on the DB write lane; a running step
+            // counter service hears about the step reset from the repository
+            stepRepository.deleteAllSteps();
+            weightRepository.deleteAllWeights();
+            rawSessionRepository.deleteAllSessions();
+
+            // Reset step count in preferences
+            userPreferences.resetStepCount();
+
+            // The write lane is a single thread, so this runs once the deletes are done
+            executors.dbWrite().execute(() -> mainHandler.post(() -> callback.onClearComplete(true)));
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error clearing data", e);
+            mainHandler.post(() -> callback.onClearComplete(false));
+        }
+    }
 
-                // Clear weight data
-                weightRepository.deleteAllWeights();
+    public interface ExportCallback {
+        void onExportComplete(boolean success, String filePath);
 
-                // Reset step count in preferences
-                userPreferences.resetStepCount();
+        default void onExportProgress(long rowsWritten, long totalRows) {}
 
-                // Reset tracking session if active
-                Intent serviceIntent = new Intent(getApplication(), StepCounterService.class);
-                serviceIntent.setAction(StepCounterService.ACTION_RESET_TRACKING);
-                getApplication().startService(serviceIntent);
+        default void onExportCancelled() {}
+    }
 
-                // Callback on main thread
-                android.os.Handler mainHandler = new android.os.Handler(getApplication().getMainLooper());
-                mainHandler.post(() -> callback.onClearComplete(true));
+    public interface ImportCallback {
+        void onImportComplete(boolean success, int recordsImported);
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error clearing data", e);
-                // Callback on main thread
-                android.os.Handler mainHandler = new android.os.Handler(getApplication().getMainLooper());
-                mainHandler.post(() -> callback.onClearComplete(false));
-            }
-        });
-    }
+        default void onImportProgress(long bytesRead, long totalBytes) {}
 
-    public interface ExportCallback {
-        void onExportComplete(boolean success, String filePath);
+        default void onImportCancelled() {}
     }
 
     public interface ClearDataCallback {
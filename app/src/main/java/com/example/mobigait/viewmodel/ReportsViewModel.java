@@ -4,21 +4,25 @@ import android.app.Application;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.core.util.Pair;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 import androidx.lifecycle.Transformations;
 
-import com.example.mobigait.model.Step;
+import com.example.mobigait.model.DailySummary;
+import com.example.mobigait.model.ReportsSnapshot;
+import com.example.mobigait.model.StepTotals;
 import com.example.mobigait.repository.StepRepository;
 import com.example.mobigait.utils.DateUtils;
 import com.example.mobigait.utils.UserPreferences;
 
-import java.util.Calendar;
-import java.util.Date;
+import io.reactivex.rxjava3.disposables.Disposable;
+
 import java.util.List;
 
+
 public class ReportsViewModel extends AndroidViewModel {
     private static final String TAG = "ReportsViewModel";
 
@@ -31,11 +35,12 @@ public class ReportsViewModel extends AndroidViewModel {
     // Metric selection
     private final MutableLiveData<Metric> selectedMetric = new MutableLiveData<>(Metric.STEPS);
 
-    // Data
-    private final LiveData<List<Step>> stepData;
-    private final LiveData<Integer> totalSteps;
-    private final LiveData<Double> averageSteps;
-    private final MutableLiveData<Integer> goalMetDays = new MutableLiveData<>(0);
+    // Today, so the week and month ranges move on at midnight
+    private final MutableLiveData<Long> today = new MutableLiveData<>(DateUtils.toDayEpoch(System.currentTimeMillis()));
+    private final Disposable daySubscription;
+
+    // Series, total, average and goal days for the selected range
+    private final LiveData<ReportsSnapshot> reportsSnapshot;
 
     public enum TimeRange {
         WEEK,
@@ -50,94 +55,76 @@ public class ReportsViewModel extends AndroidViewModel {
 
     public ReportsViewModel(@NonNull Application application) {
         super(application);
-        repository = new StepRepository(application);
+        repository = StepRepository.getInstance(application);
         userPreferences = new UserPreferences(application);
 
-        // Transform time range selection to actual data
-        stepData = Transformations.switchMap(selectedTimeRange, timeRange -> {
-            long[] range = getTimeRange(timeRange);
-            return repository.getStepsBetweenDates(range[0], range[1]);
-        });
-
-        // Calculate total steps based on selected time range
-        totalSteps = Transformations.switchMap(selectedTimeRange, timeRange -> {
-            long[] range = getTimeRange(timeRange);
-            return repository.getTotalStepsBetweenDates(range[0], range[1]);
-        });
-
-        // Calculate average steps based on selected time range
-        averageSteps = Transformations.switchMap(selectedTimeRange, timeRange -> {
-            long[] range = getTimeRange(timeRange);
-            return repository.getAverageStepsBetweenDates(range[0], range[1]);
-        });
-
-        // Observe step data to calculate goal met days
-        stepData.observeForever(steps -> {
-            if (steps != null) {
-                calculateGoalMetDays(steps);
+        daySubscription = repository.getDayChanges().subscribe(day -> {
+            if (!day.equals(today.getValue())) {
+                today.setValue(day);
             }
-        });
-    }
-
-    private long[] getTimeRange(TimeRange timeRange) {
-        switch (timeRange) {
-            case WEEK:
-                return DateUtils.getWeekTimeRange();
-            case MONTH:
-                return DateUtils.getMonthTimeRange();
-            default:
-                return DateUtils.getWeekTimeRange();
-        }
-    }
-
-    private void calculateGoalMetDays(List<Step> steps) {
-        int goalSteps = userPreferences.getStepGoal();
-        int daysMetGoal = 0;
+        }, error -> Log.e(TAG, "Day change stream failed", error));
 
-        // Group steps by day and check if goal was met
-        Calendar calendar = Calendar.getInstance();
+        // Re-query when either the range or the day changes
+        MediatorLiveData<Pair<TimeRange, Long>> rangeKey = new MediatorLiveData<>();
+        rangeKey.addSource(selectedTimeRange, timeRange -> rangeKey.setValue(Pair.create(timeRange, today.getValue())));
+        rangeKey.addSource(today, day -> rangeKey.setValue(Pair.create(selectedTimeRange.getValue(), day)));
 
-        // For week view, we need to check each day
-        if (selectedTimeRange.getValue() == TimeRange.WEEK) {
-            boolean[] dayMetGoal = new boolean[7]; // Sunday to Saturday
-
-            for (Step step : steps) {
-                calendar.setTimeInMillis(step.getTimestamp());
-                int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK) - 1; // 0 = Sunday, 6 = Saturday
+        // Day series plus the range's rollup; only emit when something on screen actually changed
+        reportsSnapshot = Transformations.distinctUntilChanged(
+                Transformations.switchMap(rangeKey, key -> loadSnapshot(key.first, key.second)));
+    }
 
-                if (step.getStepCount() >= goalSteps) {
-                    dayMetGoal[dayOfWeek] = true;
-                }
-            }
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        daySubscription.dispose();
+    }
 
-            // Count days where goal was met
-            for (boolean metGoal : dayMetGoal) {
-                if (metGoal) daysMetGoal++;
-            }
+    private LiveData<ReportsSnapshot> loadSnapshot(TimeRange timeRange, long today) {
+        if (timeRange == TimeRange.MONTH) {
+            int monthKey = DateUtils.monthKey(today);
+            long[] days = DateUtils.monthDayRange(monthKey);
+            return new SnapshotLiveData(days[0], days[1],
+                    repository.getDailySummaries(days[0], days[1]),
+                    repository.getMonthlySummary(monthKey));
+        }
+        long weekStart = DateUtils.weekStartDayEpoch(today);
+        return new SnapshotLiveData(weekStart, weekStart + 6,
+                repository.getDailySummaries(weekStart, weekStart + 6),
+                repository.getWeeklySummary(weekStart));
+    }
 
-            goalMetDays.postValue(daysMetGoal);
+    /**
+     * Combines a range's day series with its rollup, once both queries have delivered.
+     */
+    private class SnapshotLiveData extends MediatorLiveData<ReportsSnapshot> {
+        private final long firstDay;
+        private final long lastDay;
+        private List<DailySummary> days;
+        private StepTotals totals;
+        private boolean daysLoaded;
+        private boolean totalsLoaded;
+
+        SnapshotLiveData(long firstDay, long lastDay, LiveData<List<DailySummary>> daysSource,
+                         LiveData<? extends StepTotals> totalsSource) {
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            addSource(daysSource, value -> {
+                days = value;
+                daysLoaded = true;
+                publish();
+            });
+            addSource(totalsSource, value -> {
+                totals = value; // null until the range has steps
+                totalsLoaded = true;
+                publish();
+            });
         }
-        // For month view, we need to check each day of the month
-        else if (selectedTimeRange.getValue() == TimeRange.MONTH) {
-            calendar.setTimeInMillis(System.currentTimeMillis());
-            int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-            boolean[] dayMetGoal = new boolean[daysInMonth];
-
-            for (Step step : steps) {
-                calendar.setTimeInMillis(step.getTimestamp());
-                int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH) - 1; // 0-based index
-
-                if (step.getStepCount() >= goalSteps) {
-                    dayMetGoal[dayOfMonth] = true;
-                }
-            }
 
-            // Count days where goal was met
-            for (boolean metGoal : dayMetGoal) {
-                if (metGoal) daysMetGoal++;
+        private void publish() {
+            if (daysLoaded && totalsLoaded) {
+                setValue(ReportsSnapshot.of(firstDay, lastDay, days, totals, userPreferences.getStepGoal()));
             }
-
-            goalMetDays.postValue(daysMetGoal);
         }
     }
 
@@ -159,55 +146,11 @@ public class ReportsViewModel extends AndroidViewModel {
         return selectedMetric;
     }
 
-    public LiveData<List<Step>> getStepData() {
-        return stepData;
-    }
-
-    public LiveData<Integer> getTotalSteps() {
-        return totalSteps;
-    }
-
-    public LiveData<Double> getAverageSteps() {
-        return averageSteps;
-    }
-
-    public LiveData<Integer> getGoalMetDays() {
-        return goalMetDays;
+    public LiveData<ReportsSnapshot> getReportsSnapshot() {
+        return reportsSnapshot;
     }
 
     public int getStepGoal() {
         return userPreferences.getStepGoal();
     }
-
-    /**
-     * Calculate and return the average steps per day for the current week
-     */
-    public LiveData<Double> getWeeklyAverageSteps() {
-        MutableLiveData<Double> weeklyAverage = new MutableLiveData<>();
-
-        // Get the time range for the current week
-        long[] weekTimeRange = DateUtils.getWeekTimeRange();
-        long startOfWeek = weekTimeRange[0];
-        long endOfWeek = weekTimeRange[1];
-
-        // Get the average steps between these dates
-        LiveData<Double> averageSteps = repository.getAverageStepsBetweenDates(startOfWeek, endOfWeek);
-
-        // Observe the average steps and update the weekly average
-        averageSteps.observeForever(new Observer<Double>() {
-            @Override
-            public void onChanged(Double average) {
-                if (average != null) {
-                    weeklyAverage.setValue(average);
-                } else {
-                    weeklyAverage.setValue(0.0);
-                }
-
-                // Remove the observer to prevent memory leaks
-                averageSteps.removeObserver(this);
-            }
-        });
-
-        return weeklyAverage;
-    }
 }
@@ -0,0 +1,290 @@
+package com.example.mobigait.export;
+
+import com.example.mobigait.model.GaitData;
+import com.example.mobigait.model.Step;
+import com.example.mobigait.model.Weight;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Imports hand-built archives of each version into a recording sink.
+ */
+public class ArchiveImporterTest {
+    private static final long BASE_TIME = 1700000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final RecordingSink sink = new RecordingSink();
+
+    @Test
+    public void steps_decodeTimestampDeltasAcrossBlocks() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_STEPS);
+            // Deltas run on from the previous block, and may be negative
+            out.writeVarLong(2);
+            out.writeSignedVarLong(BASE_TIME);
+            out.writeSignedVarLong(-5000);
+            writeStepColumns(out, 2);
+            out.writeVarLong(1);
+            out.writeSignedVarLong(86_400_000L);
+            writeStepColumns(out, 1);
+            out.writeVarLong(0);
+        });
+
+        ArchiveImporter importer = new ArchiveImporter(sink);
+        assertTrue(importFile(importer, file));
+
+        assertEquals(2, sink.stepBlocks);
+        assertEquals(3, importer.getStepsImported());
+        assertEquals(BASE_TIME, sink.steps.get(0).getTimestamp());
+        assertEquals(BASE_TIME - 5000, sink.steps.get(1).getTimestamp());
+        assertEquals(BASE_TIME - 5000 + 86_400_000L, sink.steps.get(2).getTimestamp());
+        assertEquals(1000, sink.steps.get(1).getStepCount());
+        assertEquals(0.7, sink.steps.get(1).getDistance(), 0.0);
+        assertEquals(600_000L, sink.steps.get(1).getDuration());
+    }
+
+    @Test
+    public void weights_roundTrip() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_WEIGHTS);
+            out.writeVarLong(2);
+            out.writeSignedVarLong(BASE_TIME);
+            out.writeSignedVarLong(1);
+            out.writeFloat(72.5f);
+            out.writeFloat(72.25f);
+            out.writeVarLong(0);
+        });
+
+        ArchiveImporter importer = new ArchiveImporter(sink);
+        assertTrue(importFile(importer, file));
+
+        assertEquals(2, importer.getWeightsImported());
+        assertEquals(BASE_TIME + 1, sink.weights.get(1).getTimestamp());
+        assertEquals(72.25f, sink.weights.get(1).getWeight(), 0f);
+    }
+
+    @Test
+    public void gait_internsStatusesAcrossBlocksOfASection() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_GAIT);
+            out.writeVarLong(3);
+            writeTimestamps(out, 3);
+            out.writeVarLong(1); // new string, table size 0 + 1
+            out.writeString("Normal");
+            out.writeVarLong(0); // null
+            out.writeVarLong(1); // "Normal" again
+            writeGaitColumns(out, 3, 3);
+            out.writeVarLong(2);
+            writeTimestamps(out, 2);
+            out.writeVarLong(2); // new string, table size 1 + 1
+            out.writeString("Limping");
+            out.writeVarLong(1);
+            writeGaitColumns(out, 2, 3);
+            out.writeVarLong(0);
+        });
+
+        assertTrue(importFile(new ArchiveImporter(sink), file));
+
+        assertEquals(5, sink.gaitData.size());
+        assertEquals("Normal", sink.gaitData.get(0).getStatus());
+        assertNull(sink.gaitData.get(1).getStatus());
+        assertEquals("Normal", sink.gaitData.get(2).getStatus());
+        assertEquals("Limping", sink.gaitData.get(3).getStatus());
+        assertEquals("Normal", sink.gaitData.get(4).getStatus());
+        GaitData last = sink.gaitData.get(4);
+        assertEquals(1.75f, last.getDominantFrequency(), 0f);
+        assertEquals(0.8f, last.getStrideRegularity(), 0f);
+    }
+
+    @Test
+    public void gait_version1ImportsSpectralAndRegularityColumnsAsZero() throws IOException {
+        File file = writeArchive((short) 1, out -> writeGaitSection(out, 1));
+
+        assertTrue(importFile(new ArchiveImporter(sink), file));
+
+        GaitData data = sink.gaitData.get(0);
+        assertEquals(105f, data.getCadence(), 0f);
+        assertEquals(0.5f, data.getStepLength(), 0f);
+        assertEquals(0f, data.getDominantFrequency(), 0f);
+        assertEquals(0f, data.getHarmonicRatio(), 0f);
+        assertEquals(0f, data.getSpectralRegularity(), 0f);
+        assertEquals(0f, data.getStepRegularity(), 0f);
+        assertEquals(0f, data.getStrideRegularity(), 0f);
+    }
+
+    @Test
+    public void gait_version2ImportsRegularityColumnsAsZero() throws IOException {
+        File file = writeArchive((short) 2, out -> writeGaitSection(out, 2));
+
+        assertTrue(importFile(new ArchiveImporter(sink), file));
+
+        GaitData data = sink.gaitData.get(0);
+        assertEquals(1.75f, data.getDominantFrequency(), 0f);
+        assertEquals(2.5f, data.getHarmonicRatio(), 0f);
+        assertEquals(0.9f, data.getSpectralRegularity(), 0f);
+        assertEquals(0f, data.getStepRegularity(), 0f);
+        assertEquals(0f, data.getStrideRegularity(), 0f);
+    }
+
+    @Test
+    public void corruptBlockSize_isRejected() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_STEPS);
+            out.writeVarLong(ArchiveFormat.BLOCK_ROWS + 1);
+        });
+
+        assertImportFails(file, "block of " + (ArchiveFormat.BLOCK_ROWS + 1) + " rows");
+    }
+
+    @Test
+    public void corruptStringIndex_isRejected() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_GAIT);
+            out.writeVarLong(1);
+            writeTimestamps(out, 1);
+            out.writeVarLong(2); // the table is empty, so only 0 or 1 are valid
+        });
+
+        assertImportFails(file, "string index 2");
+    }
+
+    @Test
+    public void unknownVersion_isRejected() throws IOException {
+        File file = writeArchive((short) (ArchiveFormat.VERSION + 1), out -> {
+        });
+
+        assertImportFails(file, "Unsupported archive version");
+    }
+
+    @Test
+    public void cancelledImport_stopsAfterTheCurrentBlock() throws IOException {
+        File file = writeArchive(ArchiveFormat.VERSION, out -> {
+            out.writeByte(ArchiveFormat.TAG_STEPS);
+            for (int block = 0; block < 2; block++) {
+                out.writeVarLong(1);
+                out.writeSignedVarLong(block == 0 ? BASE_TIME : 1);
+                writeStepColumns(out, 1);
+            }
+            out.writeVarLong(0);
+        });
+
+        ArchiveImporter importer = new ArchiveImporter(sink);
+        sink.onBlock = importer::cancel;
+        assertFalse(importFile(importer, file));
+        assertEquals(1, importer.getStepsImported());
+    }
+
+    private interface ArchiveBody {
+        void write(ArchiveOutput out) throws IOException;
+    }
+
+    // Header, the given sections, then the end tag
+    private File writeArchive(short version, ArchiveBody body) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            ArchiveOutput out = new ArchiveOutput(stream.getChannel());
+            out.writeInt(ArchiveFormat.MAGIC);
+            out.writeShort(version);
+            out.writeShort((short) 0);
+            out.writeLong(BASE_TIME);
+            body.write(out);
+            out.writeByte(ArchiveFormat.TAG_END);
+            out.flush();
+        }
+        return file;
+    }
+
+    private static boolean importFile(ArchiveImporter importer, File file) throws IOException {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            return importer.importFrom(stream.getChannel(), null);
+        }
+    }
+
+    private void assertImportFails(File file, String message) {
+        try {
+            importFile(new ArchiveImporter(sink), file);
+            fail("Expected the import to fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private static void writeTimestamps(ArchiveOutput out, int rows) throws IOException {
+        out.writeSignedVarLong(BASE_TIME);
+        for (int i = 1; i < rows; i++) {
+            out.writeSignedVarLong(1000);
+        }
+    }
+
+    private static void writeStepColumns(ArchiveOutput out, int rows) throws IOException {
+        for (int i = 0; i < rows; i++) out.writeVarLong(1000);
+        for (int i = 0; i < rows; i++) out.writeDouble(0.7);
+        for (int i = 0; i < rows; i++) out.writeDouble(50.0);
+        for (int i = 0; i < rows; i++) out.writeVarLong(600_000L);
+    }
+
+    private static void writeGaitSection(ArchiveOutput out, int version) throws IOException {
+        out.writeByte(ArchiveFormat.TAG_GAIT);
+        out.writeVarLong(1);
+        writeTimestamps(out, 1);
+        out.writeVarLong(1);
+        out.writeString("Normal");
+        writeGaitColumns(out, 1, version);
+        out.writeVarLong(0);
+    }
+
+    // The columns after the status column, as written by an archive of the given version
+    private static void writeGaitColumns(ArchiveOutput out, int rows, int version) throws IOException {
+        for (int i = 0; i < rows; i++) out.writeFloat(105f);
+        for (int i = 0; i < rows; i++) out.writeDouble(40.0);
+        for (int i = 0; i < rows; i++) out.writeDouble(5.0);
+        for (int i = 0; i < rows; i++) out.writeFloat(0.5f);
+        if (version >= 2) {
+            for (int i = 0; i < rows; i++) out.writeFloat(1.75f);
+            for (int i = 0; i < rows; i++) out.writeFloat(2.5f);
+            for (int i = 0; i < rows; i++) out.writeFloat(0.9f);
+        }
+        if (version >= 3) {
+            for (int i = 0; i < rows; i++) out.writeFloat(0.7f);
+            for (int i = 0; i < rows; i++) out.writeFloat(0.8f);
+        }
+    }
+
+    private static class RecordingSink implements ArchiveImporter.Sink {
+        final List<Step> steps = new ArrayList<>();
+        final List<Weight> weights = new ArrayList<>();
+        final List<GaitData> gaitData = new ArrayList<>();
+        int stepBlocks;
+        Runnable onBlock;
+
+        @Override
+        public void importSteps(List<Step> block) {
+            steps.addAll(block);
+            stepBlocks++;
+            if (onBlock != null) onBlock.run();
+        }
+
+        @Override
+        public void importWeights(List<Weight> block) {
+            weights.addAll(block);
+        }
+
+        @Override
+        public void importGaitData(List<GaitData> block) {
+            gaitData.addAll(block);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.mobigait.export;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips through {@link ArchiveOutput} and {@link ArchiveInput}.
+ */
+public class ArchiveStreamTest {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final ArchiveOutput out = new ArchiveOutput(Channels.newChannel(bytes));
+
+    @Test
+    public void varLong_roundTripsAndUsesLeb128() throws IOException {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE, -1};
+        for (long value : values) {
+            out.writeVarLong(value);
+        }
+
+        ArchiveInput in = input();
+        for (long value : values) {
+            assertEquals(value, in.readVarLong());
+        }
+
+        // 0, 1 and 127 fit in one byte, 128 and 300 in two; -1 is unsigned, so the full ten
+        assertEquals(1 + 1 + 1 + 2 + 2 + 5 + 9 + 10, in.getBytesRead());
+    }
+
+    @Test
+    public void signedVarLong_keepsSmallNegativeDeltasShort() throws IOException {
+        out.writeSignedVarLong(-1);
+        out.writeSignedVarLong(-64);
+        out.writeSignedVarLong(63);
+        assertEquals(3, out.getBytesWritten());
+
+        long[] values = {0, 1, -1, -65, 64, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long value : values) {
+            out.writeSignedVarLong(value);
+        }
+
+        ArchiveInput in = input();
+        assertEquals(-1, in.readSignedVarLong());
+        assertEquals(-64, in.readSignedVarLong());
+        assertEquals(63, in.readSignedVarLong());
+        for (long value : values) {
+            assertEquals(value, in.readSignedVarLong());
+        }
+    }
+
+    @Test
+    public void fixedWidthAndStrings_roundTripAcrossBufferRefills() throws IOException {
+        // More than one 64 KiB buffer in both directions
+        for (int i = 0; i < 20000; i++) {
+            out.writeByte(i);
+            out.writeShort((short) i);
+            out.writeInt(i * 31);
+            out.writeLong(i * 1_000_000_007L);
+            out.writeFloat(i / 3f);
+            out.writeDouble(i / 7.0);
+            out.writeString(i % 2 == 0 ? "Normal" : "Démarche");
+        }
+
+        ArchiveInput in = input();
+        for (int i = 0; i < 20000; i++) {
+            assertEquals((byte) i, in.readByte());
+            assertEquals((short) i, in.readShort());
+            assertEquals(i * 31, in.readInt());
+            assertEquals(i * 1_000_000_007L, in.readLong());
+            assertEquals(i / 3f, in.readFloat(), 0f);
+            assertEquals(i / 7.0, in.readDouble(), 0.0);
+            assertEquals(i % 2 == 0 ? "Normal" : "Démarche", in.readString());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void writeString_rejectsOversizedString() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i <= ArchiveFormat.MAX_STRING_BYTES; i++) {
+            value.append('x');
+        }
+        out.writeString(value.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void readString_rejectsOversizedLength() throws IOException {
+        out.writeVarLong(ArchiveFormat.MAX_STRING_BYTES + 1);
+        input().readString();
+    }
+
+    @Test(expected = IOException.class)
+    public void readVarLong_rejectsRunawayVarint() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            out.writeByte(0x80);
+        }
+        out.writeByte(0);
+        input().readVarLong();
+    }
+
+    @Test(expected = EOFException.class)
+    public void read_pastEndOfInputThrows() throws IOException {
+        out.writeShort((short) 1);
+        input().readInt();
+    }
+
+    private ArchiveInput input() throws IOException {
+        out.flush();
+        return new ArchiveInput(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
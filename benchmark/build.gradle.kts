@@ -0,0 +1,64 @@
+// JMH benchmarks for the gait engine; run with ./gradlew :benchmark:jmh
+// Results are written as JSON to build/results/jmh/results.json, then checkWindowBudget
+// fails the run if one window takes longer to analyze than -PwindowBudgetMicros (default 500)
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    jmh(project(":gait-engine"))
+    jmh(testFixtures(project(":gait-engine")))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // Allocation rate per operation alongside time
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Pass -Ptrace=/path/session.imu to benchmark a recorded session instead of the synthetic walk
+    if (project.hasProperty("trace")) {
+        benchmarkParameters.put("trace", project.objects.listProperty(String::class.java).value(
+            listOf(project.property("trace").toString())))
+    }
+}
+
+// Per-window CPU budget on the benchmark host, in microseconds. Windows arrive every 4 s;
+// the budget leaves room for phones an order of magnitude slower than a desktop JVM.
+val windowBudgetMicros = (findProperty("windowBudgetMicros") ?: "500").toString().toDouble()
+
+// Fails the jmh run if analyzing one window costs more than the budget
+val checkWindowBudget by tasks.registering {
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    doLast {
+        val file = results.get().asFile
+        if (!file.exists()) return@doLast // jmh itself failed
+
+        @Suppress("UNCHECKED_CAST")
+        val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any>>
+        val run = runs.firstOrNull {
+            it["benchmark"].toString().endsWith("WindowBudgetBenchmark.analyzeWindow")
+        } ?: return@doLast // benchmark filtered out of this run
+
+        @Suppress("UNCHECKED_CAST")
+        val score = ((run["primaryMetric"] as Map<String, Any>)["score"] as Number).toDouble()
+        if (score > windowBudgetMicros) {
+            throw GradleException("Window analysis takes %.1f us, over the %.0f us budget"
+                .format(score, windowBudgetMicros))
+        }
+        logger.lifecycle("Window analysis: %.1f us of %.0f us budget".format(score, windowBudgetMicros))
+    }
+}
+
+tasks.named("jmh") {
+    finalizedBy(checkWindowBudget)
+}
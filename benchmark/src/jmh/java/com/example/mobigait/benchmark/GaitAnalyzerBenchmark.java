@@ -0,0 +1,68 @@
+package com.example.mobigait.benchmark;
+
+import com.example.mobigait.gait.GaitAnalyzer;
+import com.example.mobigait.gait.GaitFeatures;
+import com.example.mobigait.gait.SampleWindow;
+import com.example.mobigait.gait.SpectralAnalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of analyzing one 5-second window: the work done on the worker thread per window.
+ * Sample time gives the latency distribution per window; run with the gc profiler for allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GaitAnalyzerBenchmark {
+
+    @Param({Trace.SYNTHETIC})
+    public String trace;
+
+    private GaitAnalyzer analyzer;
+    private final SpectralAnalyzer spectralAnalyzer = new SpectralAnalyzer();
+    private SampleWindow window;
+    private SampleWindow rawWindow;
+
+    @Setup
+    public void setUp() throws IOException {
+        analyzer = new GaitAnalyzer();
+        Trace samples = Trace.load(trace, 10);
+        window = samples.firstEngineWindow();
+        rawWindow = samples.firstWindow();
+    }
+
+    @Benchmark
+    public GaitFeatures extractFeatures() {
+        return analyzer.extractFeatures(window);
+    }
+
+    // Offline single pass of the step detector over a whole window
+    @Benchmark
+    public int detectSteps() {
+        return analyzer.detectSteps(rawWindow);
+    }
+
+    // Welch spectrum and the features read from it
+    @Benchmark
+    public GaitFeatures spectrum() {
+        GaitFeatures features = new GaitFeatures();
+        spectralAnalyzer.analyze(window, features);
+        return features;
+    }
+
+    @Benchmark
+    public String analyzeAndClassify() {
+        return analyzer.classify(analyzer.extractFeatures(window));
+    }
+}
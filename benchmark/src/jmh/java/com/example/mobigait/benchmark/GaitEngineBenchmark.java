@@ -0,0 +1,56 @@
+package com.example.mobigait.benchmark;
+
+import com.example.mobigait.gait.GaitEngine;
+import com.example.mobigait.gait.SampleWindow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sample cost on the sensor thread: buffering, walking detection and windowing.
+ * Each invocation streams one 5-second slice of the trace (accelerometer and gyroscope at 100 Hz).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GaitEngineBenchmark {
+    private static final int SLICE = 1000; // 5 s of accelerometer + gyroscope samples
+
+    @Param({Trace.SYNTHETIC})
+    public String trace;
+
+    private Trace samples;
+    private GaitEngine engine;
+    private int position;
+    private SampleWindow lastWindow; // keeps emitted windows observable
+
+    @Setup
+    public void setUp() throws IOException {
+        samples = Trace.load(trace, 120);
+        engine = new GaitEngine(window -> lastWindow = window);
+        position = 0;
+    }
+
+    // Score is samples per second
+    @Benchmark
+    @OperationsPerInvocation(SLICE)
+    public SampleWindow streamSamples() {
+        if (position + SLICE > samples.size()) {
+            engine.reset();
+            position = 0;
+        }
+        samples.replay(engine, position, position + SLICE);
+        position += SLICE;
+        return lastWindow;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.mobigait.benchmark;
+
+import com.example.mobigait.gait.GaitEngine;
+import com.example.mobigait.gait.RawSessionReader;
+import com.example.mobigait.gait.SampleWindow;
+import com.example.mobigait.gait.SyntheticWalk;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A sensor trace held in primitive arrays, so replaying it during a benchmark allocates nothing.
+ */
+final class Trace implements RawSessionReader.SampleListener {
+    static final String SYNTHETIC = "synthetic";
+
+    private int[] types = new int[1024];
+    private long[] timestamps = new long[1024];
+    private float[] xs = new float[1024];
+    private float[] ys = new float[1024];
+    private float[] zs = new float[1024];
+    private int size = 0;
+
+    /**
+     * Load {@code source}: either {@link #SYNTHETIC} for a steady walk, or the path of a recorded .imu session.
+     */
+    static Trace load(String source, double syntheticSeconds) throws IOException {
+        Trace trace = new Trace();
+        if (SYNTHETIC.equals(source)) {
+            SyntheticWalk.generate(trace, 0, syntheticSeconds, 1.8, 0);
+        } else {
+            RawSessionReader.replay(new File(source), trace);
+        }
+        return trace;
+    }
+
+    @Override
+    public void onSample(int sensorType, long timestampNanos, float x, float y, float z) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            zs = Arrays.copyOf(zs, capacity);
+        }
+        types[size] = sensorType;
+        timestamps[size] = timestampNanos;
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Feed samples [from, to) to the listener
+    void replay(RawSessionReader.SampleListener listener, int from, int to) {
+        for (int i = from; i < to; i++) {
+            listener.onSample(types[i], timestamps[i], xs[i], ys[i], zs[i]);
+        }
+    }
+
+    /**
+     * The first window the engine hands to the analyzer: earth-frame, resampled, steps flagged.
+     */
+    SampleWindow firstEngineWindow() {
+        SampleWindow[] first = new SampleWindow[1];
+        GaitEngine engine = new GaitEngine(window -> {
+            if (first[0] == null) first[0] = window;
+        });
+        replay(engine, 0, size);
+        engine.finish();
+        if (first[0] == null) {
+            throw new IllegalStateException("Trace has no walking long enough to analyze");
+        }
+        return first[0];
+    }
+
+    /**
+     * The first full analysis window of raw accelerometer samples in the trace.
+     */
+    SampleWindow firstWindow() {
+        SampleWindow window = new SampleWindow(GaitEngine.WINDOW_SAMPLES);
+        for (int i = 0; i < size && window.size() < GaitEngine.WINDOW_SAMPLES; i++) {
+            if (types[i] == GaitEngine.TYPE_ACCELEROMETER) {
+                window.add(xs[i], ys[i], zs[i], timestamps[i]);
+            }
+        }
+        return window;
+    }
+}
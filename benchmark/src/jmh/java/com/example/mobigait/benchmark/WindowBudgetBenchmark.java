@@ -0,0 +1,55 @@
+package com.example.mobigait.benchmark;
+
+import com.example.mobigait.gait.AutocorrelationAnalyzer;
+import com.example.mobigait.gait.GaitAnalyzer;
+import com.example.mobigait.gait.GaitFeatures;
+import com.example.mobigait.gait.SampleWindow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average CPU time to analyze one engine window, the number held to the per-window budget
+ * by the checkWindowBudget task (see build.gradle.kts).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WindowBudgetBenchmark {
+
+    @Param({Trace.SYNTHETIC})
+    public String trace;
+
+    private GaitAnalyzer analyzer;
+    private final AutocorrelationAnalyzer autocorrelationAnalyzer = new AutocorrelationAnalyzer();
+    private SampleWindow window;
+    private GaitFeatures spectralFeatures;
+
+    @Setup
+    public void setUp() throws IOException {
+        analyzer = new GaitAnalyzer();
+        window = Trace.load(trace, 10).firstEngineWindow();
+        spectralFeatures = analyzer.extractFeatures(window);
+    }
+
+    // Everything done per window: steps, spectrum, autocorrelation and the rest
+    @Benchmark
+    public GaitFeatures analyzeWindow() {
+        return analyzer.extractFeatures(window);
+    }
+
+    @Benchmark
+    public GaitFeatures autocorrelation() {
+        autocorrelationAnalyzer.analyze(window, spectralFeatures);
+        return spectralFeatures;
+    }
+}
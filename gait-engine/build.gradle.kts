@@ -0,0 +1,14 @@
+// Gait analysis with no Android dependencies, so it can be tested and benchmarked on a plain JVM
+plugins {
+    `java-library`
+    `java-test-fixtures`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
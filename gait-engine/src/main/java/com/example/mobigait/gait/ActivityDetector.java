@@ -0,0 +1,93 @@
+package com.example.mobigait.gait;
+
+import java.util.Arrays;
+
+/**
+ * Decides whether the user is walking from the gravity-removed acceleration magnitude,
+ * in constant time per sample.
+ * A sample is active when its magnitude exceeds the exit threshold; the detector keeps
+ * a ring of the last {@code windowSize} active flags and a running count of them.
+ * Walking starts when the current sample exceeds the enter threshold and at least
+ * {@code enterCount} samples in the window are active, and stops once the window is full
+ * and no more than {@code exitCount} samples in it are active.
+ * Raising the enter threshold or count above the exit ones adds hysteresis.
+ */
+public class ActivityDetector {
+    public static final float DEFAULT_THRESHOLD = 1.5f; // m/s²
+    public static final int DEFAULT_WINDOW_SIZE = 50;   // samples
+
+    private final float enterThreshold;
+    private final float exitThreshold;
+    private final int enterCount;
+    private final int exitCount;
+
+    private final boolean[] active;
+    private int next = 0;
+    private int activeCount = 0;
+    private long samplesSeen = 0;
+    private boolean walking = false;
+
+    /**
+     * Start on the first sample above 1.5 m/s², stop after 50 samples in a row below it.
+     */
+    public ActivityDetector() {
+        this(DEFAULT_THRESHOLD, DEFAULT_THRESHOLD, DEFAULT_WINDOW_SIZE, 1, 0);
+    }
+
+    public ActivityDetector(float enterThreshold, float exitThreshold, int windowSize,
+                            int enterCount, int exitCount) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        if (exitThreshold > enterThreshold || exitCount >= enterCount || enterCount > windowSize) {
+            throw new IllegalArgumentException("Exit settings must not be stricter than enter settings");
+        }
+        this.enterThreshold = enterThreshold;
+        this.exitThreshold = exitThreshold;
+        this.enterCount = enterCount;
+        this.exitCount = exitCount;
+        active = new boolean[windowSize];
+    }
+
+    /**
+     * Add one sample.
+     *
+     * @param dynamicMagnitude |acceleration magnitude - gravity|, in m/s²
+     * @return true if the walking state changed
+     */
+    public boolean update(float dynamicMagnitude) {
+        boolean isActive = dynamicMagnitude > exitThreshold;
+        if (active[next]) activeCount--;
+        active[next] = isActive;
+        if (isActive) activeCount++;
+        next = next + 1 == active.length ? 0 : next + 1;
+        samplesSeen++;
+
+        if (!walking) {
+            if (dynamicMagnitude > enterThreshold && activeCount >= enterCount) {
+                walking = true;
+                return true;
+            }
+        } else if (samplesSeen > active.length && activeCount <= exitCount) {
+            walking = false;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isWalking() {
+        return walking;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void reset() {
+        Arrays.fill(active, false);
+        next = 0;
+        activeCount = 0;
+        samplesSeen = 0;
+        walking = false;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.mobigait.gait;
+
+/**
+ * Step and stride regularity from the unbiased autocorrelation of the vertical
+ * acceleration, computed through {@link RealFft} as the transform of the power spectrum.
+ * The window is zero-padded to twice its length, so the circular correlation equals the
+ * linear one, and each lag is divided by the number of sample pairs it overlaps.
+ * <ul>
+ * <li>step regularity: the coefficient at one step period (the first dominant peak)</li>
+ * <li>stride regularity: the coefficient at one stride, two steps (the second dominant peak)</li>
+ * <li>symmetry ratio: step over stride regularity; 1 when left and right steps look alike</li>
+ * </ul>
+ * The step period comes from {@link GaitFeatures#dominantFrequency}, so the spectral
+ * features must be filled first. Work per window is a fixed pair of 1024-point
+ * transforms, whatever the signal; all buffers are allocated once, so an instance must
+ * only be used from one thread.
+ */
+public class AutocorrelationAnalyzer {
+    public static final int FFT_SIZE = 1024;
+    public static final int MAX_SAMPLES = FFT_SIZE / 2; // longer windows use their latest samples
+    private static final float SEARCH_FRACTION = 0.25f;  // search +-25% around the expected lag
+
+    private final RealFft fft = new RealFft(FFT_SIZE);
+    private final float[] buffer = new float[FFT_SIZE];
+    private final float[] power = new float[FFT_SIZE / 2 + 1];
+    private final float[] coefficients = new float[MAX_SAMPLES];
+    private int lags;
+
+    public void analyze(SampleWindow window, GaitFeatures features) {
+        features.stepRegularity = 0f;
+        features.strideRegularity = 0f;
+        features.symmetryRatio = 0f;
+
+        int size = window.size();
+        int n = Math.min(size, MAX_SAMPLES);
+        if (n < 16 || features.dominantFrequency <= 0f) return;
+        long span = window.timestampNanos(size - 1) - window.timestampNanos(0);
+        if (span <= 0) return;
+        float sampleHz = (size - 1) * 1e9f / span;
+
+        if (!autocorrelate(window, size - n, n)) return;
+
+        float stepLag = sampleHz / features.dominantFrequency;
+        int step = peakNear(stepLag);
+        int stride = peakNear(2 * stepLag);
+        if (step < 0 || stride < 0) return;
+
+        features.stepRegularity = coefficients[step];
+        features.strideRegularity = coefficients[stride];
+        if (features.strideRegularity > 0f) {
+            features.symmetryRatio = features.stepRegularity / features.strideRegularity;
+        }
+    }
+
+    /**
+     * Unbiased, normalized autocorrelation coefficients of z over [start, start + n).
+     *
+     * @return false if the signal is flat
+     */
+    private boolean autocorrelate(SampleWindow window, int start, int n) {
+        float mean = 0f;
+        for (int i = 0; i < n; i++) mean += window.z(start + i);
+        mean /= n;
+        for (int i = 0; i < n; i++) buffer[i] = window.z(start + i) - mean;
+        for (int i = n; i < FFT_SIZE; i++) buffer[i] = 0f;
+
+        fft.forward(buffer);
+        fft.power(buffer, power);
+
+        // The power spectrum is real and even, so its forward transform is the correlation
+        // (times FFT_SIZE) in the real parts
+        for (int k = 0; k <= FFT_SIZE / 2; k++) buffer[k] = power[k];
+        for (int k = 1; k < FFT_SIZE / 2; k++) buffer[FFT_SIZE - k] = power[k];
+        fft.forward(buffer);
+
+        float variance = buffer[0] / n;
+        if (variance <= 0f) return false;
+        lags = n;
+        coefficients[0] = 1f;
+        for (int lag = 1; lag < n; lag++) {
+            coefficients[lag] = buffer[2 * lag] / (n - lag) / variance;
+        }
+        return true;
+    }
+
+    // Highest local maximum within SEARCH_FRACTION of the expected lag, or -1
+    private int peakNear(float expected) {
+        int from = Math.max(1, (int) (expected * (1 - SEARCH_FRACTION)));
+        int to = Math.min(lags - 2, (int) Math.ceil(expected * (1 + SEARCH_FRACTION)));
+        int best = -1;
+        for (int lag = from; lag <= to; lag++) {
+            float c = coefficients[lag];
+            if (c >= coefficients[lag - 1] && c >= coefficients[lag + 1]
+                    && (best < 0 || c > coefficients[best])) {
+                best = lag;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.mobigait.gait;
+
+/**
+ * Turns one window of accelerometer samples into {@link GaitFeatures} and a status label.
+ * Steps come from the flags on the window, set as the samples streamed through
+ * {@link GaitEngine}, so a window is read once instead of being searched for peaks.
+ * Keeps a reusable step index buffer, so an instance must only be used from one thread.
+ */
+public class GaitAnalyzer {
+    public static final String STATUS_NORMAL = "Normal";
+    public static final String STATUS_ABNORMAL_CADENCE = "Abnormal Cadence";
+    public static final String STATUS_INCONSISTENT_STEPS = "Inconsistent Steps";
+    public static final String STATUS_ASYMMETRIC = "Asymmetric Gait";
+
+    private int[] stepIndices = new int[GaitEngine.WINDOW_CAPACITY];
+    private final OrientationFusion fusion = new OrientationFusion();
+    private final StepDetector stepDetector = new StepDetector();
+    private final SpectralAnalyzer spectralAnalyzer = new SpectralAnalyzer();
+    private final AutocorrelationAnalyzer autocorrelationAnalyzer = new AutocorrelationAnalyzer();
+
+    public GaitFeatures extractFeatures(SampleWindow window) {
+        GaitFeatures features = new GaitFeatures();
+
+        // 1. Collect the steps found while the samples streamed in
+        int stepCount = collectSteps(window);
+        features.stepCount = stepCount;
+
+        // 2. Cadence (steps per minute) from the step frequency of the vertical acceleration
+        spectralAnalyzer.analyze(window, features);
+        if (stepCount >= 2) {
+            features.cadence = features.dominantFrequency * 60f;
+        }
+
+        // 3. Calculate step variability (consistency)
+        if (stepCount >= 3) {
+            int intervalCount = stepCount - 1;
+
+            // Calculate standard deviation of step intervals (in milliseconds)
+            double mean = 0;
+            for (int i = 1; i < stepCount; i++) {
+                mean += stepIntervalMillis(window, i);
+            }
+            mean /= intervalCount;
+
+            double variance = 0;
+            for (int i = 1; i < stepCount; i++) {
+                double diff = stepIntervalMillis(window, i) - mean;
+                variance += diff * diff;
+            }
+            variance /= intervalCount;
+
+            features.stepVariability = Math.sqrt(variance);
+        }
+
+        // 4. Symmetry index (0 = perfect symmetry) from how much a single step
+        // resembles a whole stride in the autocorrelation
+        autocorrelationAnalyzer.analyze(window, features);
+        if (stepCount >= 4 && features.symmetryRatio > 0) {
+            features.symmetryIndex = Math.abs(1 - features.symmetryRatio) * 100;
+        }
+
+        // 5. Estimate step length (very simplified)
+        // A real implementation would use more sophisticated methods
+        if (features.cadence > 0) {
+            // Rough estimate based on cadence
+            features.stepLength = 0.5f; // Default 50cm
+
+            if (features.cadence < 90) {
+                features.stepLength = 0.4f; // Shorter steps for slower cadence
+            } else if (features.cadence > 120) {
+                features.stepLength = 0.6f; // Longer steps for faster cadence
+            }
+        }
+
+        return features;
+    }
+
+    /**
+     * Runs the step detector over a window of raw device-frame accelerometer samples,
+     * one that did not come from {@link GaitEngine}, in a single pass, and flags its steps.
+     * The step sample indices are available through {@link #getStepIndex(int)} until the next call.
+     *
+     * @return the number of steps found
+     */
+    public int detectSteps(SampleWindow window) {
+        window.clearSteps();
+        fusion.reset();
+        stepDetector.reset();
+        for (int i = 0; i < window.size(); i++) {
+            long t = window.timestampNanos(i);
+            fusion.update(window.x(i), window.y(i), window.z(i), t);
+            if (stepDetector.update(fusion.getVertical(), t)) {
+                // A peak is confirmed by the sample after it
+                window.markStep(i - 1);
+            }
+        }
+        return collectSteps(window);
+    }
+
+    public int getStepIndex(int step) {
+        return stepIndices[step];
+    }
+
+    public String classify(GaitFeatures features) {
+        // Simple rule-based classification
+        // In a real app, you would use a trained machine learning model
+
+        if (features.cadence < 70 || features.cadence > 140) {
+            return STATUS_ABNORMAL_CADENCE;
+        }
+
+        if (features.stepVariability > 200) { // 200ms variability
+            return STATUS_INCONSISTENT_STEPS;
+        }
+
+        if (features.symmetryIndex > 20) { // 20% asymmetry
+            return STATUS_ASYMMETRIC;
+        }
+
+        return STATUS_NORMAL;
+    }
+
+    private int collectSteps(SampleWindow window) {
+        if (stepIndices.length < window.size()) {
+            stepIndices = new int[window.size()];
+        }
+        int stepCount = 0;
+        for (int i = 0; i < window.size(); i++) {
+            if (window.isStep(i)) {
+                stepIndices[stepCount++] = i;
+            }
+        }
+        return stepCount;
+    }
+
+    // Interval between step i-1 and step i, in milliseconds
+    private double stepIntervalMillis(SampleWindow window, int i) {
+        return (window.timestampNanos(stepIndices[i]) -
+                window.timestampNanos(stepIndices[i - 1])) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.mobigait.gait;
+
+/**
+ * Streaming front end of gait analysis: buffers accelerometer and gyroscope samples,
+ * detects steps and walking, and hands finished windows, with their steps flagged,
+ * to a {@link WindowListener}.
+ * Both sensors are resampled onto a common 100 Hz grid by {@link Resampler}, so sample i
+ * of the accelerometer and gyroscope windows is taken at the same instant.
+ * Accelerometer window samples are in the earth frame given by {@link OrientationFusion}:
+ * x is anteroposterior, y mediolateral and z vertical, all with gravity removed.
+ * Time is taken only from the sample timestamps, so a recorded session replays exactly
+ * as it ran live, at any speed.
+ * Not thread-safe: feed samples, {@link #finish()} and {@link #reset()} from one thread.
+ */
+public class GaitEngine implements RawSessionReader.SampleListener {
+    // android.hardware.Sensor type constants
+    public static final int TYPE_ACCELEROMETER = 1;
+    public static final int TYPE_GYROSCOPE = 4;
+
+    static final int WINDOW_CAPACITY = 512;   // a little over one 500-sample analysis window
+    public static final int WINDOW_SAMPLES = 500; // 5 seconds at 100Hz
+    private static final int KEEP_SAMPLES = 100;  // keep last second of data between windows
+
+    // Walking detection
+    static final float GRAVITY_EARTH = 9.80665f; // SensorManager.GRAVITY_EARTH
+    public static final int WALKING_WINDOW_SIZE = ActivityDetector.DEFAULT_WINDOW_SIZE; // samples
+    private static final long MIN_WALK_NANOS = 10_000_000_000L; // analyze walks of at least 10 s
+
+    public interface WindowListener {
+        // Called with a copy of the window, which the listener may keep or hand to another thread
+        void onWindow(SampleWindow window);
+
+        default void onWalkingChanged(boolean walking, long timestampNanos) {
+        }
+
+        // Called as soon as a step peak is confirmed, one sample after the peak
+        default void onStep(long timestampNanos) {
+        }
+    }
+
+    private final WindowListener listener;
+    private final ActivityDetector activityDetector;
+    private final OrientationFusion fusion = new OrientationFusion();
+    private final StepDetector stepDetector = new StepDetector();
+    private final Resampler resampler = new Resampler(this::onResampled);
+    private final SampleWindow accelerometerData = new SampleWindow(WINDOW_CAPACITY);
+    private final SampleWindow gyroscopeData = new SampleWindow(WINDOW_CAPACITY);
+
+    private long walkingStartNanos = 0;
+
+    public GaitEngine(WindowListener listener) {
+        this(listener, new ActivityDetector());
+    }
+
+    public GaitEngine(WindowListener listener, ActivityDetector activityDetector) {
+        this.listener = listener;
+        this.activityDetector = activityDetector;
+    }
+
+    @Override
+    public void onSample(int sensorType, long timestampNanos, float x, float y, float z) {
+        if (sensorType == TYPE_ACCELEROMETER) {
+            onAccelerometer(x, y, z, timestampNanos);
+        } else if (sensorType == TYPE_GYROSCOPE) {
+            onGyroscope(x, y, z, timestampNanos);
+        } else {
+            // Gravity and rotation vector samples
+            fusion.onSample(sensorType, timestampNanos, x, y, z);
+        }
+    }
+
+    public void onAccelerometer(float x, float y, float z, long timestampNanos) {
+        fusion.update(x, y, z, timestampNanos);
+        resampler.onAccelerometer(fusion.getAnteroposterior(), fusion.getMediolateral(),
+                fusion.getVertical(), timestampNanos);
+
+        // Detect walking
+        detectWalking(x, y, z, timestampNanos);
+    }
+
+    public void onGyroscope(float x, float y, float z, long timestampNanos) {
+        fusion.onGyroscope(x, y, z, timestampNanos);
+        resampler.onGyroscope(x, y, z, timestampNanos);
+    }
+
+    // One aligned sample of both sensors on the 100 Hz grid
+    private void onResampled(long timestampNanos, float ax, float ay, float az,
+                             float gx, float gy, float gz) {
+        accelerometerData.add(ax, ay, az, timestampNanos);
+        gyroscopeData.add(gx, gy, gz, timestampNanos);
+
+        // Detect steps as they happen; the peak is the sample before this one
+        if (stepDetector.update(az, timestampNanos)) {
+            if (accelerometerData.size() >= 2) {
+                accelerometerData.markStep(accelerometerData.size() - 2);
+            }
+            listener.onStep(stepDetector.getLastStepNanos());
+        }
+
+        // If we have enough data, analyze periodically
+        if (activityDetector.isWalking() && accelerometerData.size() >= WINDOW_SAMPLES) {
+            emitWindow();
+
+            // Keep a sliding window of data; both windows hold the same instants
+            accelerometerData.retainLast(KEEP_SAMPLES);
+            gyroscopeData.retainLast(KEEP_SAMPLES);
+        }
+    }
+
+    /**
+     * End of the stream: analyze what is left if the user was still walking, then reset.
+     *
+     * @return true if a final window was handed to the listener
+     */
+    public boolean finish() {
+        boolean emitted = false;
+        if (activityDetector.isWalking() && accelerometerData.size() > WALKING_WINDOW_SIZE) {
+            emitted = emitWindow();
+        }
+        reset();
+        return emitted;
+    }
+
+    public void reset() {
+        accelerometerData.clear();
+        gyroscopeData.clear();
+        activityDetector.reset();
+        fusion.reset();
+        resampler.reset();
+        stepDetector.reset();
+    }
+
+    public boolean isWalking() {
+        return activityDetector.isWalking();
+    }
+
+    private void detectWalking(float x, float y, float z, long timestampNanos) {
+        // Magnitude of acceleration with the gravity component removed
+        float magnitude = Math.abs((float) Math.sqrt(x * x + y * y + z * z) - GRAVITY_EARTH);
+
+        if (!activityDetector.update(magnitude)) return;
+
+        if (activityDetector.isWalking()) {
+            walkingStartNanos = timestampNanos;
+            listener.onWalkingChanged(true, timestampNanos);
+        } else {
+            listener.onWalkingChanged(false, timestampNanos);
+
+            // If we walked for at least 10 seconds, analyze the gait
+            if (timestampNanos - walkingStartNanos > MIN_WALK_NANOS) {
+                emitWindow();
+            }
+
+            reset();
+        }
+    }
+
+    private boolean emitWindow() {
+        if (accelerometerData.size() < WALKING_WINDOW_SIZE ||
+                gyroscopeData.size() < WALKING_WINDOW_SIZE) {
+            return false;
+        }
+        listener.onWindow(accelerometerData.copy());
+        return true;
+    }
+}
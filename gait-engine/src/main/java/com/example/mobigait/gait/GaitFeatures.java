@@ -0,0 +1,28 @@
+package com.example.mobigait.gait;
+
+/**
+ * Features extracted from one analysis window.
+ */
+public class GaitFeatures {
+    public float cadence = 0;           // steps per minute
+    public double stepVariability = 0;  // milliseconds (standard deviation)
+    public double symmetryIndex = 0;    // percentage (0 = perfect symmetry)
+    public float stepLength = 0;        // meters
+    public int stepCount = 0;           // steps detected in the window
+    public float dominantFrequency = 0; // Hz, step frequency of the vertical acceleration
+    public float harmonicRatio = 0;     // even over odd stride harmonics
+    public float spectralRegularity = 0; // 0..1, share of power at the step frequency and harmonics
+    public float stepRegularity = 0;    // autocorrelation at one step
+    public float strideRegularity = 0;  // autocorrelation at one stride
+    public float symmetryRatio = 0;     // step over stride regularity, 1 = symmetric
+
+    @Override
+    public String toString() {
+        return "GaitFeatures{cadence=" + cadence + ", stepVariability=" + stepVariability +
+                ", symmetryIndex=" + symmetryIndex + ", stepLength=" + stepLength +
+                ", stepCount=" + stepCount + ", dominantFrequency=" + dominantFrequency +
+                ", harmonicRatio=" + harmonicRatio + ", spectralRegularity=" + spectralRegularity +
+                ", stepRegularity=" + stepRegularity + ", strideRegularity=" + strideRegularity +
+                ", symmetryRatio=" + symmetryRatio + "}";
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.mobigait.gait;
+
+/**
+ * Splits each accelerometer sample into vertical, anteroposterior (forward-backward)
+ * and mediolateral (side to side) components, whatever the phone's orientation.
+ * Gravity is taken from a gravity or rotation vector sensor when the device has one;
+ * otherwise it is tracked by a complementary filter that rotates the previous estimate
+ * with the gyroscope and pulls it slowly towards the measured acceleration.
+ * The anteroposterior axis is the main direction of horizontal acceleration, seeded by
+ * the first clear horizontal movement and followed with Oja's rule; its sign is arbitrary.
+ * Results are kept in fields and read back with the getters, so nothing is allocated per sample.
+ */
+public class OrientationFusion {
+    // android.hardware.Sensor type constants
+    public static final int TYPE_GRAVITY = 9;
+    public static final int TYPE_ROTATION_VECTOR = 11;
+    public static final int TYPE_GAME_ROTATION_VECTOR = 15;
+
+    private static final float TIME_CONSTANT_NANOS = 1_000_000_000f; // accelerometer correction, 1 s
+    private static final float MAX_GYRO_STEP_NANOS = 100_000_000f;   // ignore gyroscope gaps over 100 ms
+    private static final float AXIS_LEARNING_RATE = 0.005f;
+    private static final float MIN_HORIZONTAL = 0.1f; // m/s², enough movement to seed the axis
+
+    // Gravity estimate in device coordinates, m/s²
+    private float gx, gy, gz;
+    private boolean hasGravity = false;
+    private boolean gravityFromSensor = false;
+    private long lastAccelerometerNanos;
+    private long lastGyroscopeNanos;
+    private boolean hasGyroscope = false;
+
+    // Anteroposterior unit axis in device coordinates, kept horizontal
+    private float fx, fy, fz;
+    private boolean hasAxis = false;
+
+    private float vertical;
+    private float anteroposterior;
+    private float mediolateral;
+
+    /**
+     * Feed any sensor sample; accelerometer samples update the outputs.
+     *
+     * @return true if the sample was an accelerometer sample and the outputs changed
+     */
+    public boolean onSample(int sensorType, long timestampNanos, float x, float y, float z) {
+        switch (sensorType) {
+            case GaitEngine.TYPE_ACCELEROMETER:
+                update(x, y, z, timestampNanos);
+                return true;
+            case GaitEngine.TYPE_GYROSCOPE:
+                onGyroscope(x, y, z, timestampNanos);
+                return false;
+            case TYPE_GRAVITY:
+                onGravity(x, y, z);
+                return false;
+            case TYPE_ROTATION_VECTOR:
+            case TYPE_GAME_ROTATION_VECTOR:
+                onRotationVector(x, y, z);
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public void update(float x, float y, float z, long timestampNanos) {
+        if (!hasGravity) {
+            gx = x;
+            gy = y;
+            gz = z;
+            hasGravity = true;
+        } else if (!gravityFromSensor) {
+            // Complementary filter: the gyroscope keeps the estimate turning with the phone,
+            // the accelerometer removes its drift
+            long dt = Math.max(timestampNanos - lastAccelerometerNanos, 0);
+            float alpha = dt / (TIME_CONSTANT_NANOS + dt);
+            gx += alpha * (x - gx);
+            gy += alpha * (y - gy);
+            gz += alpha * (z - gz);
+        }
+        lastAccelerometerNanos = timestampNanos;
+
+        float gravity = (float) Math.sqrt(gx * gx + gy * gy + gz * gz);
+        if (gravity == 0f) {
+            vertical = anteroposterior = mediolateral = 0f;
+            return;
+        }
+        float ux = gx / gravity, uy = gy / gravity, uz = gz / gravity;
+
+        // Vertical part, then what is left in the horizontal plane
+        float along = x * ux + y * uy + z * uz;
+        vertical = along - gravity;
+        float hx = x - along * ux, hy = y - along * uy, hz = z - along * uz;
+
+        if (hasAxis) {
+            // Keep the forward axis horizontal as the phone turns
+            float drift = fx * ux + fy * uy + fz * uz;
+            fx -= drift * ux;
+            fy -= drift * uy;
+            fz -= drift * uz;
+            hasAxis = normalizeAxis();
+        }
+        if (!hasAxis) {
+            // Seed the axis with the first clear horizontal movement
+            fx = hx;
+            fy = hy;
+            fz = hz;
+            if (Math.sqrt(hx * hx + hy * hy + hz * hz) < MIN_HORIZONTAL || !normalizeAxis()) {
+                anteroposterior = mediolateral = 0f;
+                return;
+            }
+            hasAxis = true;
+        }
+
+        // Oja's rule: move the axis towards the direction of the largest horizontal acceleration
+        float p = hx * fx + hy * fy + hz * fz;
+        fx += AXIS_LEARNING_RATE * p * (hx - p * fx);
+        fy += AXIS_LEARNING_RATE * p * (hy - p * fy);
+        fz += AXIS_LEARNING_RATE * p * (hz - p * fz);
+        hasAxis = normalizeAxis();
+
+        anteroposterior = hx * fx + hy * fy + hz * fz;
+        // Mediolateral axis is up x forward
+        float sx = uy * fz - uz * fy, sy = uz * fx - ux * fz, sz = ux * fy - uy * fx;
+        mediolateral = hx * sx + hy * sy + hz * sz;
+    }
+
+    public void onGyroscope(float wx, float wy, float wz, long timestampNanos) {
+        if (hasGyroscope && hasGravity && !gravityFromSensor) {
+            float dtNanos = timestampNanos - lastGyroscopeNanos;
+            if (dtNanos > 0 && dtNanos < MAX_GYRO_STEP_NANOS) {
+                // In device coordinates a fixed vector turns by -w x v
+                float dt = dtNanos / 1e9f;
+                float nx = gx - dt * (wy * gz - wz * gy);
+                float ny = gy - dt * (wz * gx - wx * gz);
+                float nz = gz - dt * (wx * gy - wy * gx);
+                // A first-order step also stretches the vector; keep its length
+                float scale = (float) Math.sqrt((gx * gx + gy * gy + gz * gz) / (nx * nx + ny * ny + nz * nz));
+                gx = nx * scale;
+                gy = ny * scale;
+                gz = nz * scale;
+
+                nx = fx - dt * (wy * fz - wz * fy);
+                ny = fy - dt * (wz * fx - wx * fz);
+                nz = fz - dt * (wx * fy - wy * fx);
+                fx = nx;
+                fy = ny;
+                fz = nz;
+            }
+        }
+        lastGyroscopeNanos = timestampNanos;
+        hasGyroscope = true;
+    }
+
+    public void onGravity(float x, float y, float z) {
+        gx = x;
+        gy = y;
+        gz = z;
+        hasGravity = true;
+        gravityFromSensor = true;
+    }
+
+    /**
+     * Take gravity from the first three rotation vector components (the scalar part is derived).
+     */
+    public void onRotationVector(float x, float y, float z) {
+        float w2 = 1 - x * x - y * y - z * z;
+        float w = w2 > 0 ? (float) Math.sqrt(w2) : 0f;
+        // Last row of the rotation matrix: the world's up axis in device coordinates
+        onGravity(GaitEngine.GRAVITY_EARTH * (2 * x * z - 2 * y * w),
+                GaitEngine.GRAVITY_EARTH * (2 * y * z + 2 * x * w),
+                GaitEngine.GRAVITY_EARTH * (1 - 2 * x * x - 2 * y * y));
+    }
+
+    // Acceleration along gravity minus gravity itself, m/s²
+    public float getVertical() {
+        return vertical;
+    }
+
+    public float getAnteroposterior() {
+        return anteroposterior;
+    }
+
+    public float getMediolateral() {
+        return mediolateral;
+    }
+
+    public boolean isGravityFromSensor() {
+        return gravityFromSensor;
+    }
+
+    public void reset() {
+        hasGravity = false;
+        gravityFromSensor = false;
+        hasGyroscope = false;
+        hasAxis = false;
+        fx = fy = fz = 0f;
+        vertical = anteroposterior = mediolateral = 0f;
+    }
+
+    private boolean normalizeAxis() {
+        float norm = (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+        if (norm < 1e-3f) return false;
+        fx /= norm;
+        fy /= norm;
+        fz /= norm;
+        return true;
+    }
+}
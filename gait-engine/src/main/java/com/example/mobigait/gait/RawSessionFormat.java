@@ -0,0 +1,34 @@
+package com.example.mobigait.gait;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of a raw IMU session file (.imu): a fixed header followed by fixed-size records.
+ *
+ * <pre>
+ * header (32 bytes): magic (int "MGRW"), version (short), record size (short),
+ *                    start time (long wall-clock millis), reserved (long), sample count (long)
+ * record (24 bytes): timestamp (long event nanos), sensor type (int), x, y, z (float)
+ * </pre>
+ *
+ * Sensor types are the {@code android.hardware.Sensor.TYPE_*} values. All values are
+ * little-endian. A sample count of 0 means the session was not closed cleanly; readers
+ * then stop at the first record whose sensor type is 0.
+ */
+public final class RawSessionFormat {
+    public static final int MAGIC = 0x4D475257; // "MGRW"
+    public static final short VERSION = 1;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int HEADER_BYTES = 32;
+    public static final int RECORD_BYTES = 24;
+    static final int COUNT_OFFSET = 24;
+
+    // Records mapped at a time; 32768 records is 768 KB, a few minutes of accel + gyro at 100 Hz
+    static final int REGION_RECORDS = 1 << 15;
+
+    public static final String FILE_EXTENSION = ".imu";
+
+    private RawSessionFormat() {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.mobigait.gait;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Replays a session file written by {@link RawSessionWriter}, in recording order.
+ */
+public final class RawSessionReader {
+
+    public interface SampleListener {
+        void onSample(int sensorType, long timestampNanos, float x, float y, float z);
+    }
+
+    private RawSessionReader() {
+    }
+
+    /**
+     * Deliver every sample in {@code file} to {@code listener} on the calling thread.
+     *
+     * @return the number of samples delivered
+     * @throws IOException if the file cannot be read or is not a session file
+     */
+    public static long replay(File file, SampleListener listener) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(RawSessionFormat.HEADER_BYTES).order(RawSessionFormat.ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated session header");
+                }
+            }
+            header.flip();
+            if (header.getInt() != RawSessionFormat.MAGIC) {
+                throw new IOException("Not a raw session file: " + file);
+            }
+            short version = header.getShort();
+            short recordBytes = header.getShort();
+            if (version != RawSessionFormat.VERSION || recordBytes != RawSessionFormat.RECORD_BYTES) {
+                throw new IOException("Unsupported session file version " + version);
+            }
+            long storedCount = header.getLong(RawSessionFormat.COUNT_OFFSET);
+
+            // An unclosed session has no count; fall back to the file length and the zero terminator
+            long available = (channel.size() - RawSessionFormat.HEADER_BYTES) / RawSessionFormat.RECORD_BYTES;
+            long count = storedCount > 0 ? Math.min(storedCount, available) : available;
+            boolean stopAtEmpty = storedCount == 0;
+
+            long delivered = 0;
+            long position = RawSessionFormat.HEADER_BYTES;
+            while (delivered < count) {
+                int records = (int) Math.min(count - delivered, RawSessionFormat.REGION_RECORDS);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        (long) records * RawSessionFormat.RECORD_BYTES);
+                region.order(RawSessionFormat.ORDER);
+
+                for (int i = 0; i < records; i++) {
+                    long timestampNanos = region.getLong();
+                    int sensorType = region.getInt();
+                    float x = region.getFloat();
+                    float y = region.getFloat();
+                    float z = region.getFloat();
+                    if (stopAtEmpty && sensorType == 0) {
+                        return delivered;
+                    }
+                    listener.onSample(sensorType, timestampNanos, x, y, z);
+                    delivered++;
+                }
+                position += (long) records * RawSessionFormat.RECORD_BYTES;
+            }
+            return delivered;
+        }
+    }
+}
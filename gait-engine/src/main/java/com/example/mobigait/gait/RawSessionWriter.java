@@ -0,0 +1,116 @@
+package com.example.mobigait.gait;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends raw sensor samples to a session file (see {@link RawSessionFormat}).
+ * The file is memory-mapped a region at a time, so {@link #append} is a handful of
+ * stores into mapped memory; a new region is mapped only every
+ * {@code REGION_RECORDS} samples.
+ * Not thread-safe: append and close must be called from the same thread.
+ */
+public class RawSessionWriter implements Closeable {
+    private final File file;
+    private final long startTimeMillis;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long sampleCount = 0;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    public RawSessionWriter(File file, long startTimeMillis) throws IOException {
+        this.file = file;
+        this.startTimeMillis = startTimeMillis;
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        ByteBuffer header = ByteBuffer.allocate(RawSessionFormat.HEADER_BYTES).order(RawSessionFormat.ORDER);
+        header.putInt(RawSessionFormat.MAGIC);
+        header.putShort(RawSessionFormat.VERSION);
+        header.putShort((short) RawSessionFormat.RECORD_BYTES);
+        header.putLong(startTimeMillis);
+        header.putLong(0); // reserved
+        header.putLong(0); // sample count, written on close
+        header.flip();
+        channel.write(header, 0);
+
+        mapRegion(RawSessionFormat.HEADER_BYTES);
+    }
+
+    /**
+     * Append one sample. If the file cannot be extended the writer stops recording
+     * and later samples are dropped; see {@link #hasFailed()}.
+     */
+    public void append(int sensorType, long timestampNanos, float x, float y, float z) {
+        if (failed || closed) return;
+        if (region.remaining() < RawSessionFormat.RECORD_BYTES) {
+            try {
+                mapRegion(regionStart + region.position());
+            } catch (IOException e) {
+                failed = true;
+                return;
+            }
+        }
+        region.putLong(timestampNanos);
+        region.putInt(sensorType);
+        region.putFloat(x);
+        region.putFloat(y);
+        region.putFloat(z);
+        sampleCount++;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Record the sample count, trim the unused tail of the last region and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (region != null) {
+                region.force();
+                region = null;
+            }
+            ByteBuffer count = ByteBuffer.allocate(8).order(RawSessionFormat.ORDER);
+            count.putLong(sampleCount).flip();
+            channel.write(count, RawSessionFormat.COUNT_OFFSET);
+            channel.truncate(RawSessionFormat.HEADER_BYTES + sampleCount * RawSessionFormat.RECORD_BYTES);
+            channel.force(true);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    // Mapping past the end of the file grows it; the new space reads back as zeros
+    private void mapRegion(long position) throws IOException {
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                (long) RawSessionFormat.REGION_RECORDS * RawSessionFormat.RECORD_BYTES);
+        region.order(RawSessionFormat.ORDER);
+    }
+}
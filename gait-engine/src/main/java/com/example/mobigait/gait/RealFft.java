@@ -0,0 +1,126 @@
+package com.example.mobigait.gait;
+
+/**
+ * In-place radix-2 FFT of real data. A transform of n real values runs as a complex
+ * transform of n/2 points followed by a split step, with the twiddle factors and the
+ * bit-reversal order computed once in the constructor.
+ * Output is packed into the input array: {@code data[0]} is bin 0, {@code data[1]} is
+ * bin n/2 (both purely real), and {@code data[2k], data[2k + 1]} are the real and
+ * imaginary parts of bin k for 0 &lt; k &lt; n/2.
+ */
+public class RealFft {
+    private final int n;
+    private final float[] cos; // cos(2 pi k / n), k < n/2
+    private final float[] sin;
+    private final int[] swaps; // pairs of complex indices to exchange for bit-reversed order
+
+    public RealFft(int n) {
+        if (n < 4 || Integer.bitCount(n) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two, at least 4: " + n);
+        }
+        this.n = n;
+        cos = new float[n / 2];
+        sin = new float[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            double angle = 2 * Math.PI * k / n;
+            cos[k] = (float) Math.cos(angle);
+            sin[k] = (float) Math.sin(angle);
+        }
+
+        int m = n / 2;
+        int bits = Integer.numberOfTrailingZeros(m);
+        int count = 0;
+        int[] pairs = new int[m];
+        for (int i = 0; i < m; i++) {
+            int j = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            if (i < j) {
+                pairs[count++] = i;
+                pairs[count++] = j;
+            }
+        }
+        swaps = new int[count];
+        System.arraycopy(pairs, 0, swaps, 0, count);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Transform {@code data[0..n)} in place; see the class comment for the output layout.
+     */
+    public void forward(float[] data) {
+        int m = n / 2;
+
+        // Complex FFT of the even/odd samples taken as real/imaginary pairs
+        for (int s = 0; s < swaps.length; s += 2) {
+            int a = 2 * swaps[s];
+            int b = 2 * swaps[s + 1];
+            float re = data[a];
+            float im = data[a + 1];
+            data[a] = data[b];
+            data[a + 1] = data[b + 1];
+            data[b] = re;
+            data[b + 1] = im;
+        }
+        for (int len = 2; len <= m; len <<= 1) {
+            int half = len / 2;
+            int step = 2 * (m / len); // twiddle index stride in the n-point table
+            for (int start = 0; start < m; start += len) {
+                for (int j = 0; j < half; j++) {
+                    float wr = cos[j * step];
+                    float wi = -sin[j * step];
+                    int a = 2 * (start + j);
+                    int b = 2 * (start + j + half);
+                    float tr = wr * data[b] - wi * data[b + 1];
+                    float ti = wr * data[b + 1] + wi * data[b];
+                    data[b] = data[a] - tr;
+                    data[b + 1] = data[a + 1] - ti;
+                    data[a] += tr;
+                    data[a + 1] += ti;
+                }
+            }
+        }
+
+        // Split into the spectrum of the real input
+        float z0r = data[0];
+        float z0i = data[1];
+        data[0] = z0r + z0i;
+        data[1] = z0r - z0i;
+        for (int k = 1; k <= m / 2; k++) {
+            int a = 2 * k;
+            int b = 2 * (m - k);
+            float ar = data[a], ai = data[a + 1];
+            float br = data[b], bi = data[b + 1];
+
+            float er = 0.5f * (ar + br);
+            float ei = 0.5f * (ai - bi);
+            float or = 0.5f * (ai + bi);
+            float oi = -0.5f * (ar - br);
+            float c = cos[k];
+            float s = sin[k];
+            float tr = c * or + s * oi;
+            float ti = c * oi - s * or;
+
+            data[a] = er + tr;
+            data[a + 1] = ei + ti;
+            if (b != a) {
+                data[b] = er - tr;
+                data[b + 1] = -ei + ti;
+            }
+        }
+    }
+
+    /**
+     * Squared magnitude of each bin 0..n/2 of a transformed array.
+     */
+    public void power(float[] spectrum, float[] power) {
+        power[0] = spectrum[0] * spectrum[0];
+        power[n / 2] = spectrum[1] * spectrum[1];
+        for (int k = 1; k < n / 2; k++) {
+            float re = spectrum[2 * k];
+            float im = spectrum[2 * k + 1];
+            power[k] = re * re + im * im;
+        }
+    }
+}
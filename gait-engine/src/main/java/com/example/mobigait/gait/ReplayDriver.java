@@ -0,0 +1,75 @@
+package com.example.mobigait.gait;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs a recorded session through {@link GaitEngine} and {@link GaitAnalyzer} on the
+ * calling thread, as fast as the samples can be read.
+ */
+public final class ReplayDriver {
+
+    /**
+     * Outcome of one replay: the analysis of every window, in order.
+     */
+    public static final class Result {
+        private final long samples;
+        private final List<GaitFeatures> features;
+        private final List<String> statuses;
+        private final long elapsedNanos;
+
+        Result(long samples, List<GaitFeatures> features, List<String> statuses, long elapsedNanos) {
+            this.samples = samples;
+            this.features = Collections.unmodifiableList(features);
+            this.statuses = Collections.unmodifiableList(statuses);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public List<GaitFeatures> getFeatures() {
+            return features;
+        }
+
+        public List<String> getStatuses() {
+            return statuses;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getSamplesPerSecond() {
+            return elapsedNanos > 0 ? samples * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    private ReplayDriver() {
+    }
+
+    public static Result replay(File session) throws IOException {
+        return replay(session, new GaitAnalyzer());
+    }
+
+    public static Result replay(File session, GaitAnalyzer analyzer) throws IOException {
+        List<GaitFeatures> features = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        GaitEngine engine = new GaitEngine(window -> {
+            GaitFeatures windowFeatures = analyzer.extractFeatures(window);
+            features.add(windowFeatures);
+            statuses.add(analyzer.classify(windowFeatures));
+        });
+
+        long start = System.nanoTime();
+        long samples = RawSessionReader.replay(session, engine);
+        engine.finish();
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(samples, features, statuses, elapsed);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.mobigait.gait;
+
+/**
+ * Puts the accelerometer and gyroscope streams, each delivered at its own rate, onto one
+ * fixed-rate time grid by linear interpolation, so that a grid sample of one sensor is
+ * taken at exactly the same time as the other's.
+ * The accelerometer drives the grid. A tick waits for the gyroscope to reach it, but not
+ * for longer than {@link #MAX_WAIT_NANOS}; after that the gyroscope value is held (or
+ * zero if there is no gyroscope at all).
+ * Both streams are kept in small preallocated {@link SampleWindow}s, so nothing is allocated per sample.
+ */
+public class Resampler {
+    public static final long DEFAULT_PERIOD_NANOS = 10_000_000L; // 100 Hz
+    static final long MAX_WAIT_NANOS = 100_000_000L; // 100 ms
+    static final long MAX_GAP_NANOS = 200_000_000L;  // a longer accelerometer gap restarts the grid
+    private static final int STREAM_CAPACITY = 64;
+
+    public interface Listener {
+        void onResampled(long timestampNanos, float ax, float ay, float az, float gx, float gy, float gz);
+    }
+
+    private final long periodNanos;
+    private final Listener listener;
+    private final SampleWindow accelerometer = new SampleWindow(STREAM_CAPACITY);
+    private final SampleWindow gyroscope = new SampleWindow(STREAM_CAPACITY);
+
+    private long nextTickNanos;
+
+    // Interpolated values of the current tick
+    private float vx, vy, vz;
+
+    public Resampler(Listener listener) {
+        this(DEFAULT_PERIOD_NANOS, listener);
+    }
+
+    public Resampler(long periodNanos, Listener listener) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + periodNanos);
+        }
+        this.periodNanos = periodNanos;
+        this.listener = listener;
+    }
+
+    public void onAccelerometer(float x, float y, float z, long timestampNanos) {
+        if (accelerometer.isEmpty()
+                || timestampNanos - latest(accelerometer) > MAX_GAP_NANOS) {
+            // First sample or the stream was interrupted: start a new grid here
+            accelerometer.clear();
+            nextTickNanos = timestampNanos;
+        }
+        accelerometer.add(x, y, z, timestampNanos);
+        drain();
+    }
+
+    public void onGyroscope(float x, float y, float z, long timestampNanos) {
+        gyroscope.add(x, y, z, timestampNanos);
+        drain();
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    public void reset() {
+        accelerometer.clear();
+        gyroscope.clear();
+    }
+
+    private void drain() {
+        while (!accelerometer.isEmpty() && latest(accelerometer) >= nextTickNanos) {
+            boolean gyroscopeReady = !gyroscope.isEmpty() && latest(gyroscope) >= nextTickNanos;
+            if (!gyroscopeReady && latest(accelerometer) - nextTickNanos < MAX_WAIT_NANOS) {
+                return;
+            }
+
+            interpolate(accelerometer, nextTickNanos);
+            float ax = vx, ay = vy, az = vz;
+            if (gyroscope.isEmpty()) {
+                vx = vy = vz = 0f;
+            } else {
+                interpolate(gyroscope, nextTickNanos);
+            }
+            listener.onResampled(nextTickNanos, ax, ay, az, vx, vy, vz);
+
+            nextTickNanos += periodNanos;
+        }
+    }
+
+    /**
+     * Interpolate {@code stream} at time {@code t} into vx, vy, vz, then drop the samples
+     * that no later tick can need.
+     */
+    private void interpolate(SampleWindow stream, long t) {
+        int size = stream.size();
+        int before = 0; // last sample at or before t
+        while (before + 1 < size && stream.timestampNanos(before + 1) <= t) {
+            before++;
+        }
+
+        long t0 = stream.timestampNanos(before);
+        if (before + 1 == size || t <= t0) {
+            // Hold the nearest value at the edges
+            vx = stream.x(before);
+            vy = stream.y(before);
+            vz = stream.z(before);
+        } else {
+            long t1 = stream.timestampNanos(before + 1);
+            float f = (float) (t - t0) / (t1 - t0);
+            vx = stream.x(before) + f * (stream.x(before + 1) - stream.x(before));
+            vy = stream.y(before) + f * (stream.y(before + 1) - stream.y(before));
+            vz = stream.z(before) + f * (stream.z(before + 1) - stream.z(before));
+        }
+
+        stream.retainLast(size - before);
+    }
+
+    private static long latest(SampleWindow stream) {
+        return stream.timestampNanos(stream.size() - 1);
+    }
+}
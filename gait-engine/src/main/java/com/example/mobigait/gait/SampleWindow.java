@@ -0,0 +1,132 @@
+package com.example.mobigait.gait;
+
+/**
+ * Fixed-capacity ring buffer of three-axis sensor samples.
+ * Samples are stored as parallel primitive arrays so adding a sample never allocates;
+ * once the buffer is full the oldest sample is overwritten.
+ * Index 0 is always the oldest sample still held.
+ * Each sample also carries a step flag, set by {@link GaitEngine} or {@link GaitAnalyzer#detectSteps}.
+ */
+public class SampleWindow {
+    private final float[] ax;
+    private final float[] ay;
+    private final float[] az;
+    private final long[] tNanos;
+    private final boolean[] steps;
+    private final int capacity;
+
+    private int head = 0; // index of the oldest sample
+    private int size = 0;
+
+    public SampleWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        ax = new float[capacity];
+        ay = new float[capacity];
+        az = new float[capacity];
+        tNanos = new long[capacity];
+        steps = new boolean[capacity];
+    }
+
+    public void add(float x, float y, float z, long timestampNanos) {
+        int slot;
+        if (size < capacity) {
+            slot = physicalIndex(size);
+            size++;
+        } else {
+            // Full: overwrite the oldest sample
+            slot = head;
+            head = (head + 1) % capacity;
+        }
+        ax[slot] = x;
+        ay[slot] = y;
+        az[slot] = z;
+        tNanos[slot] = timestampNanos;
+        steps[slot] = false;
+    }
+
+    /**
+     * Drop everything except the most recent {@code count} samples.
+     */
+    public void retainLast(int count) {
+        if (count >= size) return;
+        if (count <= 0) {
+            clear();
+            return;
+        }
+        head = physicalIndex(size - count);
+        size = count;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copy the held samples, oldest first, into a new window sized to fit them.
+     */
+    public SampleWindow copy() {
+        SampleWindow copy = new SampleWindow(Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int p = physicalIndex(i);
+            copy.add(ax[p], ay[p], az[p], tNanos[p]);
+            copy.steps[i] = steps[p];
+        }
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float x(int i) {
+        return ax[physicalIndex(i)];
+    }
+
+    public float y(int i) {
+        return ay[physicalIndex(i)];
+    }
+
+    public float z(int i) {
+        return az[physicalIndex(i)];
+    }
+
+    public long timestampNanos(int i) {
+        return tNanos[physicalIndex(i)];
+    }
+
+    public boolean isStep(int i) {
+        return steps[physicalIndex(i)];
+    }
+
+    public void markStep(int i) {
+        steps[physicalIndex(i)] = true;
+    }
+
+    public void clearSteps() {
+        for (int i = 0; i < size; i++) {
+            steps[physicalIndex(i)] = false;
+        }
+    }
+
+    public float magnitude(int i) {
+        int p = physicalIndex(i);
+        return (float) Math.sqrt(ax[p] * ax[p] + ay[p] * ay[p] + az[p] * az[p]);
+    }
+
+    private int physicalIndex(int i) {
+        int p = head + i;
+        return p >= capacity ? p - capacity : p;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.mobigait.gait;
+
+/**
+ * Frequency-domain features of the vertical acceleration in a window, from a Welch
+ * power spectrum: Hann-windowed segments of up to {@link #FFT_SIZE} samples, overlapping
+ * by at least half and spread to cover the whole window, with their power averaged.
+ * A 5-second engine window is a single zero-padded segment; shorter segments would blur
+ * the stride harmonics into the step peak.
+ * <ul>
+ * <li>dominant frequency: the strongest peak in the step band, refined by fitting a parabola
+ *     through the log power of the peak bin and its neighbours; this is the step frequency</li>
+ * <li>harmonic ratio: amplitude at the even harmonics of the stride frequency (half the step
+ *     frequency) over the odd ones; higher means the left and right steps look more alike</li>
+ * <li>spectral regularity: share of the power at the step frequency and its first harmonics</li>
+ * </ul>
+ * All buffers are allocated once, so an instance must only be used from one thread.
+ */
+public class SpectralAnalyzer {
+    public static final int FFT_SIZE = 512;
+    private static final float MIN_STEP_HZ = 0.5f;
+    private static final float MAX_STEP_HZ = 3.5f;
+    private static final int HARMONICS = 10;            // stride harmonics used for the harmonic ratio
+    private static final int REGULARITY_HARMONICS = 4;  // step harmonics counted as regular power
+
+    private final RealFft fft = new RealFft(FFT_SIZE);
+    private final float[] hann = new float[FFT_SIZE];
+    private final float[] buffer = new float[FFT_SIZE];
+    private final float[] segmentPower = new float[FFT_SIZE / 2 + 1];
+    private final float[] psd = new float[FFT_SIZE / 2 + 1];
+
+    private int hannLength = 0;
+    private float binHz;
+    private int lobeBins; // half width of the Hann main lobe, in bins
+
+    /**
+     * Fill the spectral fields of {@code features} from the vertical axis (z) of an
+     * earth-frame window from {@link GaitEngine}. Leaves them at 0 if the window is too
+     * short or has no clear step peak.
+     */
+    public void analyze(SampleWindow window, GaitFeatures features) {
+        features.dominantFrequency = 0f;
+        features.harmonicRatio = 0f;
+        features.spectralRegularity = 0f;
+
+        int size = window.size();
+        if (size < 16) return;
+        long span = window.timestampNanos(size - 1) - window.timestampNanos(0);
+        if (span <= 0) return;
+        float sampleHz = (size - 1) * 1e9f / span;
+        binHz = sampleHz / FFT_SIZE;
+
+        welch(window);
+
+        // Strongest bin in the step band, away from the edges of the spectrum
+        int first = Math.max(1, (int) Math.ceil(MIN_STEP_HZ / binHz));
+        int last = Math.min(FFT_SIZE / 2 - 1, (int) (MAX_STEP_HZ / binHz));
+        int peak = -1;
+        for (int k = first; k <= last; k++) {
+            if (peak < 0 || psd[k] > psd[peak]) peak = k;
+        }
+        if (peak < 0 || psd[peak] <= 0f || psd[peak] < psd[peak - 1] || psd[peak] < psd[peak + 1]) {
+            return; // no local maximum inside the band
+        }
+
+        float offset = 0f;
+        if (psd[peak - 1] > 0f && psd[peak + 1] > 0f) {
+            // A Hann-windowed peak is close to a Gaussian, i.e. a parabola in log power
+            float left = (float) Math.log(psd[peak - 1]);
+            float centre = (float) Math.log(psd[peak]);
+            float right = (float) Math.log(psd[peak + 1]);
+            float curvature = left - 2 * centre + right;
+            if (curvature < 0f) offset = 0.5f * (left - right) / curvature;
+        }
+        float stepHz = (peak + offset) * binHz;
+        features.dominantFrequency = stepHz;
+
+        // Harmonic ratio over the stride frequency
+        float strideHz = stepHz / 2;
+        float even = 0f, odd = 0f;
+        for (int h = 1; h <= HARMONICS && h * strideHz < sampleHz / 2; h++) {
+            float amplitude = (float) Math.sqrt(peakPower(h * strideHz, 1));
+            if (h % 2 == 0) {
+                even += amplitude;
+            } else {
+                odd += amplitude;
+            }
+        }
+        features.harmonicRatio = odd > 0f ? even / odd : 0f;
+
+        // Spectral regularity: power near the step frequency and its harmonics over all power but DC
+        float total = 0f;
+        for (int k = 1; k <= FFT_SIZE / 2; k++) {
+            total += psd[k];
+        }
+        // Bands as wide as the main lobe, but never touching their neighbours
+        int halfWidth = Math.max(1, Math.min(lobeBins, (int) (stepHz / 4 / binHz)));
+        float harmonic = 0f;
+        for (int h = 1; h <= REGULARITY_HARMONICS && h * stepHz < sampleHz / 2; h++) {
+            harmonic += bandPower(Math.round(h * stepHz / binHz), halfWidth);
+        }
+        features.spectralRegularity = total > 0f ? Math.min(harmonic / total, 1f) : 0f;
+    }
+
+    // Averaged power spectrum of the window's vertical axis into psd
+    private void welch(SampleWindow window) {
+        int size = window.size();
+        int length = Math.min(size, FFT_SIZE);
+        int segments = size <= FFT_SIZE ? 1 : 2 + (size - FFT_SIZE - 1) / (FFT_SIZE / 2);
+        int hop = segments > 1 ? (size - FFT_SIZE) / (segments - 1) : 0;
+        if (length != hannLength) {
+            // Windows nearly always have the same length, so the taper is rarely rebuilt
+            for (int i = 0; i < length; i++) {
+                hann[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (length - 1)));
+            }
+            hannLength = length;
+        }
+        lobeBins = (int) Math.ceil(2.0 * FFT_SIZE / length);
+
+        for (int k = 0; k < psd.length; k++) psd[k] = 0f;
+        for (int s = 0; s < segments; s++) {
+            int start = s * hop;
+
+            float mean = 0f;
+            for (int i = 0; i < length; i++) mean += window.z(start + i);
+            mean /= length;
+
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (window.z(start + i) - mean) * hann[i];
+            }
+            for (int i = length; i < FFT_SIZE; i++) buffer[i] = 0f;
+
+            fft.forward(buffer);
+            fft.power(buffer, segmentPower);
+            for (int k = 0; k < psd.length; k++) psd[k] += segmentPower[k];
+        }
+        for (int k = 0; k < psd.length; k++) psd[k] /= segments;
+    }
+
+    // Largest bin within halfWidth bins of frequency hz
+    private float peakPower(float hz, int halfWidth) {
+        int centre = Math.round(hz / binHz);
+        float best = 0f;
+        for (int k = Math.max(1, centre - halfWidth); k <= Math.min(psd.length - 1, centre + halfWidth); k++) {
+            best = Math.max(best, psd[k]);
+        }
+        return best;
+    }
+
+    private float bandPower(int centre, int halfWidth) {
+        float sum = 0f;
+        for (int k = Math.max(1, centre - halfWidth); k <= Math.min(psd.length - 1, centre + halfWidth); k++) {
+            sum += psd[k];
+        }
+        return sum;
+    }
+}
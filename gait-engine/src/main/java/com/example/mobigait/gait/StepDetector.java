@@ -0,0 +1,86 @@
+package com.example.mobigait.gait;
+
+/**
+ * Online step detector: looks at each vertical acceleration sample once and reports a
+ * step as soon as its peak is confirmed, one sample after the peak itself.
+ * Vertical acceleration comes from {@link OrientationFusion}, so the result does not
+ * depend on how the phone is held.
+ * The peak threshold follows the average height of recent peaks, never dropping below a
+ * noise floor, and a peak only counts once the signal has gone back below zero since the
+ * previous step and at least {@link #MIN_STEP_INTERVAL_NANOS} has passed.
+ */
+public class StepDetector {
+    public static final long MIN_STEP_INTERVAL_NANOS = 300_000_000L; // 300 ms = at most 200 steps per minute
+    public static final float NOISE_FLOOR = 0.8f;      // m/s², smallest peak that can be a step
+    private static final float THRESHOLD_RATIO = 0.5f; // fraction of the average peak height
+    private static final float PEAK_SMOOTHING = 0.2f;  // weight of the newest peak in the average
+    private static final float INITIAL_PEAK_AVERAGE = 3f; // starts the threshold at the old fixed 1.5 m/s²
+
+    private boolean initialized = false;
+
+    // The last two vertical accelerations: a peak is confirmed when the next one is lower
+    private float before;
+    private float candidate;
+    private long candidateNanos;
+
+    private float peakAverage = INITIAL_PEAK_AVERAGE;
+    private boolean armed = true;
+    private boolean hasStep = false;
+    private long lastStepNanos;
+
+    /**
+     * Add one sample.
+     *
+     * @param vertical acceleration along gravity with gravity removed, m/s²
+     * @return true if the previous sample turned out to be a step peak; its time is
+     *         available from {@link #getLastStepNanos()}
+     */
+    public boolean update(float vertical, long timestampNanos) {
+        if (!initialized) {
+            initialized = true;
+            before = 0f;
+            candidate = vertical;
+            candidateNanos = timestampNanos;
+            return false;
+        }
+
+        boolean step = false;
+        if (candidate > before && candidate >= vertical && candidate > NOISE_FLOOR) {
+            // Every peak above the noise floor adapts the threshold, accepted or not
+            peakAverage += PEAK_SMOOTHING * (candidate - peakAverage);
+
+            if (armed && candidate > getThreshold()
+                    && (!hasStep || candidateNanos - lastStepNanos >= MIN_STEP_INTERVAL_NANOS)) {
+                lastStepNanos = candidateNanos;
+                hasStep = true;
+                armed = false;
+                step = true;
+            }
+        }
+        if (vertical < 0) {
+            armed = true;
+        }
+
+        before = candidate;
+        candidate = vertical;
+        candidateNanos = timestampNanos;
+        return step;
+    }
+
+    public float getThreshold() {
+        return Math.max(NOISE_FLOOR, THRESHOLD_RATIO * peakAverage);
+    }
+
+    public long getLastStepNanos() {
+        return lastStepNanos;
+    }
+
+    public void reset() {
+        initialized = false;
+        peakAverage = INITIAL_PEAK_AVERAGE;
+        armed = true;
+        hasStep = false;
+        lastStepNanos = 0;
+    }
+
+}
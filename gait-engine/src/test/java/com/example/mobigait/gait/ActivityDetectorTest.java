@@ -0,0 +1,82 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ActivityDetectorTest {
+
+    @Test
+    public void defaults_startOnFirstActiveSample() {
+        ActivityDetector detector = new ActivityDetector();
+
+        assertFalse(detector.update(0.2f));
+        assertTrue(detector.update(2f));
+        assertTrue(detector.isWalking());
+    }
+
+    @Test
+    public void defaults_stopAfterFullWindowOfQuietSamples() {
+        ActivityDetector detector = new ActivityDetector();
+        detector.update(2f);
+
+        // One active sample keeps the user walking for the next 49
+        for (int i = 0; i < ActivityDetector.DEFAULT_WINDOW_SIZE - 1; i++) {
+            assertFalse(detector.update(0f));
+        }
+        assertTrue(detector.isWalking());
+
+        assertTrue(detector.update(0f));
+        assertFalse(detector.isWalking());
+        assertEquals(0, detector.getActiveCount());
+    }
+
+    @Test
+    public void activeSample_extendsWalk() {
+        ActivityDetector detector = new ActivityDetector();
+        detector.update(2f);
+        for (int i = 0; i < 30; i++) detector.update(0f);
+        detector.update(2f);
+        for (int i = 0; i < 40; i++) detector.update(0f);
+
+        assertTrue(detector.isWalking());
+    }
+
+    @Test
+    public void hysteresis_requiresEnoughActiveSamplesToStart() {
+        ActivityDetector detector = new ActivityDetector(2f, 1f, 10, 3, 1);
+
+        // Above the exit threshold only: counted as active but never starts a walk
+        assertFalse(detector.update(1.5f));
+        assertFalse(detector.update(1.5f));
+        assertEquals(2, detector.getActiveCount());
+        assertTrue(detector.update(2.5f));
+
+        // Stops while one active sample is still in the window (exitCount = 1)
+        for (int i = 0; i < 8; i++) assertFalse(detector.update(0f));
+        assertEquals(2, detector.getActiveCount());
+        assertTrue(detector.update(0f));
+        assertFalse(detector.isWalking());
+        assertEquals(1, detector.getActiveCount());
+    }
+
+    @Test
+    public void reset_clearsState() {
+        ActivityDetector detector = new ActivityDetector();
+        detector.update(2f);
+        detector.reset();
+
+        assertFalse(detector.isWalking());
+        assertEquals(0, detector.getActiveCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exitStricterThanEnter_rejected() {
+        new ActivityDetector(1f, 2f, 50, 1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveWindow_rejected() {
+        new ActivityDetector(1.5f, 1.5f, 0, 1, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AutocorrelationAnalyzerTest {
+    private static final long PERIOD_NANOS = 10_000_000L; // 100 Hz
+
+    private interface Signal {
+        float at(double seconds);
+    }
+
+    private static GaitFeatures analyze(float stepHz, Signal vertical) {
+        SampleWindow window = new SampleWindow(500);
+        for (int i = 0; i < 500; i++) {
+            window.add(0, 0, vertical.at(i / 100.0), i * PERIOD_NANOS);
+        }
+        GaitFeatures features = new GaitFeatures();
+        features.dominantFrequency = stepHz;
+        new AutocorrelationAnalyzer().analyze(window, features);
+        return features;
+    }
+
+    @Test
+    public void symmetricGait_regularAndRatioOne() {
+        GaitFeatures features = analyze(1.8f, t -> (float) Math.sin(2 * Math.PI * 1.8 * t));
+
+        assertEquals(1f, features.stepRegularity, 0.05f);
+        assertEquals(1f, features.strideRegularity, 0.05f);
+        assertEquals(1f, features.symmetryRatio, 0.05f);
+    }
+
+    @Test
+    public void unevenSteps_stepRegularityDrops() {
+        // Every other bounce is weaker: the pattern repeats per stride, not per step
+        GaitFeatures features = analyze(1.8f, t -> (float) (Math.sin(2 * Math.PI * 1.8 * t)
+                + 0.6 * Math.sin(2 * Math.PI * 0.9 * t)));
+
+        assertTrue(features.strideRegularity > 0.9f);
+        assertTrue(features.stepRegularity < 0.7f);
+        assertTrue(features.symmetryRatio < 0.8f);
+    }
+
+    @Test
+    public void irregularSteps_lowerRegularity() {
+        Random random = new Random(3);
+        float[] noise = new float[500];
+        for (int i = 0; i < noise.length; i++) noise[i] = (float) random.nextGaussian();
+        GaitFeatures features = analyze(1.8f, t -> (float) Math.sin(2 * Math.PI * 1.8 * t)
+                + noise[(int) Math.round(t * 100)]);
+
+        assertTrue(features.stepRegularity < 0.7f);
+        assertTrue(features.stepRegularity > 0f);
+    }
+
+    @Test
+    public void noStepFrequency_nothingComputed() {
+        GaitFeatures features = analyze(0f, t -> (float) Math.sin(2 * Math.PI * 1.8 * t));
+
+        assertEquals(0f, features.stepRegularity, 0f);
+        assertEquals(0f, features.symmetryRatio, 0f);
+    }
+}
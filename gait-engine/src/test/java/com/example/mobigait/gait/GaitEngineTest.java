@@ -0,0 +1,85 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GaitEngineTest {
+
+    @Test
+    public void steadyWalk_emitsWindowsWithMatchingCadence() {
+        GaitAnalyzer analyzer = new GaitAnalyzer();
+        List<GaitFeatures> results = new ArrayList<>();
+        GaitEngine engine = new GaitEngine(window -> results.add(analyzer.extractFeatures(window)));
+
+        // 1.6 steps per second = 96 steps per minute
+        SyntheticWalk.generate(engine, 0, 30, 1.6, 0);
+        engine.finish();
+
+        assertFalse(results.isEmpty());
+        for (GaitFeatures features : results) {
+            if (features.stepCount < 5) continue; // short tail window flushed by finish()
+
+            assertEquals(96f, features.cadence, 2f);
+            assertEquals(1.6f, features.dominantFrequency, 0.03f);
+            assertEquals(0.5f, features.stepLength, 0f);
+            assertEquals(GaitAnalyzer.STATUS_NORMAL, analyzer.classify(features));
+        }
+    }
+
+    @Test
+    public void standingStill_emitsNothing() {
+        List<SampleWindow> windows = new ArrayList<>();
+        GaitEngine engine = new GaitEngine(windows::add);
+
+        SyntheticWalk.generate(engine, 0, 0, 1.8, 20);
+
+        assertFalse(engine.finish());
+        assertTrue(windows.isEmpty());
+    }
+
+    @Test
+    public void walkThenRest_analyzesTheWalkWhenItEnds() {
+        List<Boolean> transitions = new ArrayList<>();
+        List<SampleWindow> windows = new ArrayList<>();
+        GaitEngine engine = new GaitEngine(new GaitEngine.WindowListener() {
+            @Override
+            public void onWindow(SampleWindow window) {
+                windows.add(window);
+            }
+
+            @Override
+            public void onWalkingChanged(boolean walking, long timestampNanos) {
+                transitions.add(walking);
+            }
+        });
+
+        SyntheticWalk.generate(engine, 0, 12, 1.8, 5);
+
+        assertFalse(engine.isWalking());
+        assertEquals(2, transitions.size());
+        assertTrue(transitions.get(0));
+        assertFalse(transitions.get(1));
+        assertFalse(windows.isEmpty());
+    }
+
+    @Test
+    public void detectSteps_respectsMinimumStepInterval() {
+        // 5 bounces per second would be 300 steps per minute; anything closer than 300 ms is dropped
+        SampleWindow window = new SampleWindow(GaitEngine.WINDOW_SAMPLES);
+        SyntheticWalk.generate((type, t, x, y, z) -> {
+            if (type == GaitEngine.TYPE_ACCELEROMETER) window.add(x, y, z, t);
+        }, 0, 5, 5, 0);
+
+        GaitAnalyzer analyzer = new GaitAnalyzer();
+        int steps = analyzer.detectSteps(window);
+        for (int i = 1; i < steps; i++) {
+            long interval = window.timestampNanos(analyzer.getStepIndex(i))
+                    - window.timestampNanos(analyzer.getStepIndex(i - 1));
+            assertTrue(interval >= 300_000_000L);
+        }
+    }
+}
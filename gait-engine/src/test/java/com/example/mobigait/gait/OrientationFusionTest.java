@@ -0,0 +1,99 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrientationFusionTest {
+    private static final float GRAVITY = 9.80665f;
+    private static final long PERIOD_NANOS = 10_000_000L; // 100 Hz
+
+    // Bounce of 3 m/s² at 2 Hz along up = (ux, uy, uz) and 1 m/s² forward along (fx, fy, fz);
+    // returns the largest vertical error over the last second
+    private static float walk(OrientationFusion fusion, float[] up, float[] forward, double seconds) {
+        float maxError = 0f;
+        int samples = (int) (seconds * 100);
+        for (int i = 0; i < samples; i++) {
+            double phase = 2 * Math.PI * 2 * i / 100;
+            float bounce = (float) (3 * Math.sin(phase));
+            float surge = (float) Math.cos(phase);
+            float a = GRAVITY + bounce;
+            fusion.update(a * up[0] + surge * forward[0], a * up[1] + surge * forward[1],
+                    a * up[2] + surge * forward[2], i * PERIOD_NANOS);
+            if (i >= samples - 100) {
+                maxError = Math.max(maxError, Math.abs(fusion.getVertical() - bounce));
+            }
+        }
+        return maxError;
+    }
+
+    @Test
+    public void vertical_independentOfOrientation() {
+        float s = (float) Math.sqrt(0.5);
+        float[][] ups = {{0, 1, 0}, {0, 0, 1}, {s, 0, s}};
+        float[][] forwards = {{0, 0, 1}, {1, 0, 0}, {s, 0, -s}};
+        for (int i = 0; i < ups.length; i++) {
+            OrientationFusion fusion = new OrientationFusion();
+            fusion.onGravity(GRAVITY * ups[i][0], GRAVITY * ups[i][1], GRAVITY * ups[i][2]);
+            assertEquals(0f, walk(fusion, ups[i], forwards[i], 5), 0.01f);
+        }
+    }
+
+    @Test
+    public void withoutGravitySensor_filterConverges() {
+        OrientationFusion fusion = new OrientationFusion();
+
+        // The low-pass estimate leaks part of the 2 Hz bounce, so allow a little more error
+        float error = walk(fusion, new float[]{0, 0, 1}, new float[]{1, 0, 0}, 20);
+
+        assertFalse(fusion.isGravityFromSensor());
+        assertTrue("error " + error, error < 0.5f);
+    }
+
+    @Test
+    public void anteroposterior_followsForwardAcceleration() {
+        OrientationFusion fusion = new OrientationFusion();
+        fusion.onGravity(0, GRAVITY, 0);
+        walk(fusion, new float[]{0, 1, 0}, new float[]{0, 0, 1}, 30);
+
+        // Forward surge ends up on the anteroposterior axis, not the mediolateral one
+        float surge = fusion.getAnteroposterior();
+        assertEquals(1f, Math.abs(surge), 0.1f);
+        assertEquals(0f, fusion.getMediolateral(), 0.1f);
+    }
+
+    @Test
+    public void rotationVector_flat_gravityAlongZ() {
+        OrientationFusion fusion = new OrientationFusion();
+        fusion.onRotationVector(0, 0, 0);
+        fusion.update(0, 0, GRAVITY + 2, 0);
+
+        assertTrue(fusion.isGravityFromSensor());
+        assertEquals(2f, fusion.getVertical(), 1e-3f);
+    }
+
+    // Phone standing still while it turns half a circle about z in one second;
+    // returns the largest vertical error
+    private static float turn(OrientationFusion fusion, boolean withGyroscope) {
+        float rate = (float) Math.PI;
+        float maxError = 0f;
+        for (int i = 0; i <= 100; i++) {
+            long t = i * PERIOD_NANOS;
+            if (withGyroscope) fusion.onGyroscope(0, 0, rate, t);
+            // A world-fixed vector turns the other way in device coordinates
+            double angle = -rate * i / 100.0;
+            fusion.update(-GRAVITY * (float) Math.sin(angle), GRAVITY * (float) Math.cos(angle), 0, t + 1);
+            maxError = Math.max(maxError, Math.abs(fusion.getVertical()));
+        }
+        return maxError;
+    }
+
+    @Test
+    public void gyroscope_tracksPhoneTurning() {
+        float withGyroscope = turn(new OrientationFusion(), true);
+        float withoutGyroscope = turn(new OrientationFusion(), false);
+
+        assertTrue("error " + withGyroscope, withGyroscope < 0.1f);
+        assertTrue(withoutGyroscope > 5 * withGyroscope);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mobigait.gait;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class RawSessionReaderTest {
+    private static final int ACCELEROMETER = 1;
+    private static final int GYROSCOPE = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replay_closedSessionCrossesRegionBoundary() throws IOException {
+        File session = folder.newFile("closed" + RawSessionFormat.FILE_EXTENSION);
+        int samples = RawSessionFormat.REGION_RECORDS + 10;
+        try (RawSessionWriter writer = new RawSessionWriter(session, 0)) {
+            appendSamples(writer, samples);
+        }
+
+        assertEquals(RawSessionFormat.HEADER_BYTES + (long) samples * RawSessionFormat.RECORD_BYTES,
+                session.length());
+        assertReplaysInOrder(session, samples);
+    }
+
+    @Test
+    public void replay_unclosedSessionStopsAtFirstEmptyRecord() throws IOException {
+        File session = folder.newFile("unclosed" + RawSessionFormat.FILE_EXTENSION);
+        RawSessionWriter writer = new RawSessionWriter(session, 0);
+        try {
+            appendSamples(writer, 100);
+
+            // As after a crash: the count is still 0 and the rest of the mapped region is zeros
+            assertTrue(session.length() > RawSessionFormat.HEADER_BYTES + 100L * RawSessionFormat.RECORD_BYTES);
+            assertReplaysInOrder(session, 100);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void replay_unclosedSessionStopsInsideSecondRegion() throws IOException {
+        File session = folder.newFile("unclosed-long" + RawSessionFormat.FILE_EXTENSION);
+        int samples = RawSessionFormat.REGION_RECORDS + 10;
+        RawSessionWriter writer = new RawSessionWriter(session, 0);
+        try {
+            appendSamples(writer, samples);
+
+            assertEquals(RawSessionFormat.HEADER_BYTES
+                    + 2L * RawSessionFormat.REGION_RECORDS * RawSessionFormat.RECORD_BYTES, session.length());
+            assertReplaysInOrder(session, samples);
+        } finally {
+            writer.close();
+        }
+    }
+
+    // Alternating accelerometer and gyroscope samples, 5 ms apart, with the index in x
+    private static void appendSamples(RawSessionWriter writer, int count) {
+        for (int i = 0; i < count; i++) {
+            writer.append(i % 2 == 0 ? ACCELEROMETER : GYROSCOPE, (i + 1) * 5_000_000L, i, -i, 9.81f);
+        }
+    }
+
+    private static void assertReplaysInOrder(File session, int expected) throws IOException {
+        int[] next = {0};
+        long delivered = RawSessionReader.replay(session, (type, t, x, y, z) -> {
+            int i = next[0]++;
+            assertEquals(i % 2 == 0 ? ACCELEROMETER : GYROSCOPE, type);
+            assertEquals((i + 1) * 5_000_000L, t);
+            assertEquals(i, x, 0f);
+            assertEquals(-i, y, 0f);
+            assertEquals(9.81f, z, 0f);
+        });
+        assertEquals(expected, delivered);
+        assertEquals(expected, next[0]);
+    }
+}
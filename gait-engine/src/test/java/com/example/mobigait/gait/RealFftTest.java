@@ -0,0 +1,54 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RealFftTest {
+
+    @Test
+    public void forward_matchesDirectDft() {
+        for (int n : new int[]{4, 8, 64, 512}) {
+            Random random = new Random(n);
+            float[] input = new float[n];
+            for (int i = 0; i < n; i++) input[i] = random.nextFloat() - 0.5f;
+
+            float[] data = input.clone();
+            new RealFft(n).forward(data);
+
+            for (int k = 0; k <= n / 2; k++) {
+                double re = 0, im = 0;
+                for (int i = 0; i < n; i++) {
+                    re += input[i] * Math.cos(2 * Math.PI * k * i / n);
+                    im -= input[i] * Math.sin(2 * Math.PI * k * i / n);
+                }
+                float actualRe = k == 0 ? data[0] : k == n / 2 ? data[1] : data[2 * k];
+                float actualIm = k == 0 || k == n / 2 ? 0f : data[2 * k + 1];
+                assertEquals("n=" + n + " k=" + k, re, actualRe, 1e-4);
+                assertEquals("n=" + n + " k=" + k, im, actualIm, 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void power_ofPureTone_isInItsBin() {
+        RealFft fft = new RealFft(64);
+        float[] data = new float[64];
+        for (int i = 0; i < 64; i++) data[i] = (float) Math.cos(2 * Math.PI * 5 * i / 64);
+
+        float[] power = new float[33];
+        fft.forward(data);
+        fft.power(data, power);
+
+        assertEquals(32f * 32f, power[5], 1e-2f);
+        assertEquals(0f, power[4], 1e-3f);
+        assertEquals(0f, power[6], 1e-3f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notPowerOfTwo_rejected() {
+        new RealFft(500);
+    }
+}
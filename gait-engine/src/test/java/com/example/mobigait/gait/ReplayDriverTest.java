@@ -0,0 +1,70 @@
+package com.example.mobigait.gait;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReplayDriverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replay_matchesLiveAnalysis() throws IOException {
+        File session = folder.newFile("session" + RawSessionFormat.FILE_EXTENSION);
+        GaitAnalyzer liveAnalyzer = new GaitAnalyzer();
+        List<GaitFeatures> live = new ArrayList<>();
+        GaitEngine liveEngine = new GaitEngine(window -> live.add(liveAnalyzer.extractFeatures(window)));
+
+        // Record while analyzing, as GaitAnalysisService does
+        long samples;
+        try (RawSessionWriter writer = new RawSessionWriter(session, 0)) {
+            samples = SyntheticWalk.generate((type, t, x, y, z) -> {
+                writer.append(type, t, x, y, z);
+                liveEngine.onSample(type, t, x, y, z);
+            }, 0, 60, 1.7, 5);
+        }
+        liveEngine.finish();
+
+        ReplayDriver.Result result = ReplayDriver.replay(session);
+
+        assertEquals(samples, result.getSamples());
+        assertEquals(live.size(), result.getFeatures().size());
+        for (int i = 0; i < live.size(); i++) {
+            assertEquals(live.get(i).cadence, result.getFeatures().get(i).cadence, 0f);
+            assertEquals(live.get(i).stepVariability, result.getFeatures().get(i).stepVariability, 0.0);
+            assertEquals(live.get(i).symmetryIndex, result.getFeatures().get(i).symmetryIndex, 0.0);
+        }
+    }
+
+    @Test
+    public void replay_longSessionClassifiesEveryWindow() throws IOException {
+        // Ten minutes of accel + gyro spans several mapped regions
+        File session = folder.newFile("long" + RawSessionFormat.FILE_EXTENSION);
+        long samples;
+        try (RawSessionWriter writer = new RawSessionWriter(session, 0)) {
+            samples = SyntheticWalk.generate(writer::append, 0, 600, 1.8, 0);
+        }
+        assertTrue(samples > 2L * RawSessionFormat.REGION_RECORDS);
+
+        ReplayDriver.Result result = ReplayDriver.replay(session);
+
+        assertEquals(samples, result.getSamples());
+        assertFalse(result.getFeatures().isEmpty());
+        assertEquals(result.getFeatures().size(), result.getStatuses().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void replay_rejectsOtherFiles() throws IOException {
+        File notASession = folder.newFile("notes.txt");
+        java.nio.file.Files.write(notASession.toPath(), new byte[64]);
+        ReplayDriver.replay(notASession);
+    }
+}
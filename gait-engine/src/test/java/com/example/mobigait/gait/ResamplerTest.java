@@ -0,0 +1,83 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResamplerTest {
+    private static final long MS = 1_000_000L;
+
+    private final List<Long> ticks = new ArrayList<>();
+    private final List<float[]> values = new ArrayList<>();
+    private final Resampler resampler = new Resampler((t, ax, ay, az, gx, gy, gz) -> {
+        ticks.add(t);
+        values.add(new float[]{ax, ay, az, gx, gy, gz});
+    });
+
+    @Test
+    public void differentRates_alignedOnGrid() {
+        // Accelerometer at ~90 Hz with jitter, gyroscope at 200 Hz; both carry a ramp of their time in ms
+        long accel = 0;
+        long gyro = 1 * MS;
+        for (int i = 0; i < 100; i++) {
+            long next = 11 * MS + (i % 3) * MS;
+            while (gyro <= accel + next) {
+                resampler.onGyroscope(gyro / (float) MS, 0, 0, gyro);
+                gyro += 5 * MS;
+            }
+            resampler.onAccelerometer(accel / (float) MS, 0, 0, accel);
+            accel += next;
+        }
+
+        assertTrue(ticks.size() > 100);
+        for (int i = 0; i < ticks.size(); i++) {
+            long t = ticks.get(i);
+            assertEquals(i * Resampler.DEFAULT_PERIOD_NANOS, t);
+            float expected = t / (float) MS;
+            assertEquals(expected, values.get(i)[0], 1e-3f);
+            if (t >= MS) {
+                assertEquals(expected, values.get(i)[3], 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void waitsForGyroscope() {
+        resampler.onAccelerometer(1, 0, 0, 0);
+        resampler.onAccelerometer(1, 0, 0, 10 * MS);
+        assertTrue(ticks.isEmpty());
+
+        resampler.onGyroscope(2, 0, 0, 10 * MS);
+        assertEquals(2, ticks.size());
+        assertEquals(2f, values.get(1)[3], 0f);
+    }
+
+    @Test
+    public void noGyroscope_ticksAfterMaxWait() {
+        long t = 0;
+        while (t <= Resampler.MAX_WAIT_NANOS + 50 * MS) {
+            resampler.onAccelerometer(1, 0, 0, t);
+            t += 10 * MS;
+        }
+
+        assertFalse(ticks.isEmpty());
+        assertEquals(0f, values.get(0)[3], 0f);
+    }
+
+    @Test
+    public void longGap_restartsGrid() {
+        resampler.onGyroscope(0, 0, 0, 10_000 * MS);
+        resampler.onAccelerometer(0, 0, 0, 0);
+        resampler.onAccelerometer(0, 0, 0, 10 * MS);
+        int before = ticks.size();
+
+        resampler.onAccelerometer(0, 0, 0, 5_003 * MS);
+
+        // No ticks were filled in across the gap
+        assertEquals(before + 1, ticks.size());
+        assertEquals(5_003 * MS, (long) ticks.get(ticks.size() - 1));
+    }
+}
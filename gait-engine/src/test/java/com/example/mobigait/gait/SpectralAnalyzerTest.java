@@ -0,0 +1,70 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpectralAnalyzerTest {
+    private static final long PERIOD_NANOS = 10_000_000L; // 100 Hz
+
+    private interface Signal {
+        float at(double seconds);
+    }
+
+    private static GaitFeatures analyze(int samples, Signal vertical) {
+        SampleWindow window = new SampleWindow(samples);
+        for (int i = 0; i < samples; i++) {
+            window.add(0, 0, vertical.at(i / 100.0), i * PERIOD_NANOS);
+        }
+        GaitFeatures features = new GaitFeatures();
+        new SpectralAnalyzer().analyze(window, features);
+        return features;
+    }
+
+    @Test
+    public void steadyBounce_dominantFrequencyIsStepFrequency() {
+        for (double stepHz : new double[]{1.2, 1.8, 2.4}) {
+            GaitFeatures features = analyze(500, t -> (float) Math.sin(2 * Math.PI * stepHz * t));
+
+            assertEquals(stepHz, features.dominantFrequency, 0.03);
+            assertTrue(features.spectralRegularity > 0.9f);
+        }
+    }
+
+    @Test
+    public void unevenSteps_lowerHarmonicRatio() {
+        // A stride component (half the step frequency) appears when left and right steps differ
+        GaitFeatures even = analyze(500, t -> (float) (Math.sin(2 * Math.PI * 1.8 * t)
+                + 0.1 * Math.sin(2 * Math.PI * 0.9 * t)));
+        GaitFeatures uneven = analyze(500, t -> (float) (Math.sin(2 * Math.PI * 1.8 * t)
+                + 0.6 * Math.sin(2 * Math.PI * 0.9 * t)));
+
+        assertEquals(1.8f, uneven.dominantFrequency, 0.03f);
+        assertTrue(even.harmonicRatio > 2 * uneven.harmonicRatio);
+    }
+
+    @Test
+    public void noise_lowRegularity() {
+        Random random = new Random(1);
+        GaitFeatures features = analyze(500, t -> (float) random.nextGaussian());
+
+        assertTrue(features.spectralRegularity < 0.3f);
+    }
+
+    @Test
+    public void shortWindow_singleSegment() {
+        GaitFeatures features = analyze(200, t -> (float) Math.sin(2 * Math.PI * 2 * t));
+
+        assertEquals(2f, features.dominantFrequency, 0.1f);
+    }
+
+    @Test
+    public void flatSignal_noFeatures() {
+        GaitFeatures features = analyze(500, t -> 0f);
+
+        assertEquals(0f, features.dominantFrequency, 0f);
+        assertEquals(0f, features.harmonicRatio, 0f);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mobigait.gait;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StepDetectorTest {
+    private static final long PERIOD_NANOS = 10_000_000L; // 100 Hz
+
+    // Feeds a sinusoidal vertical bounce and returns the step times
+    private static List<Long> walk(StepDetector detector, double seconds, double stepsPerSecond, float amplitude) {
+        List<Long> steps = new ArrayList<>();
+        for (int i = 0; i < seconds * 100; i++) {
+            float vertical = (float) (amplitude * Math.sin(2 * Math.PI * stepsPerSecond * i / 100));
+            if (detector.update(vertical, i * PERIOD_NANOS)) {
+                steps.add(detector.getLastStepNanos());
+            }
+        }
+        return steps;
+    }
+
+    @Test
+    public void steadyWalk_oneStepPerBounce() {
+        List<Long> steps = walk(new StepDetector(), 10, 2, 3);
+
+        assertEquals(20, steps.size());
+        for (int i = 1; i < steps.size(); i++) {
+            assertEquals(500_000_000L, steps.get(i) - steps.get(i - 1));
+        }
+    }
+
+    @Test
+    public void stepTime_isThePeakNotTheConfirmation() {
+        // At 1 step per second the bounce peaks 250 ms into each second
+        List<Long> steps = walk(new StepDetector(), 3, 1, 3);
+
+        assertFalse(steps.isEmpty());
+        assertEquals(250_000_000L, steps.get(0) % 1_000_000_000L);
+    }
+
+    @Test
+    public void gentleWalk_thresholdAdaptsDown() {
+        StepDetector detector = new StepDetector();
+
+        // Peaks of 1.2 m/s² start below the initial threshold
+        List<Long> steps = walk(detector, 10, 2, 1.2f);
+
+        assertTrue(detector.getThreshold() < 1.2f);
+        assertTrue(steps.size() >= 15);
+    }
+
+    @Test
+    public void noiseBelowFloor_noSteps() {
+        assertTrue(walk(new StepDetector(), 10, 2, 0.5f).isEmpty());
+    }
+
+    @Test
+    public void fastBounces_respectMinimumStepInterval() {
+        List<Long> steps = walk(new StepDetector(), 5, 5, 3);
+
+        assertFalse(steps.isEmpty());
+        for (int i = 1; i < steps.size(); i++) {
+            assertTrue(steps.get(i) - steps.get(i - 1) >= StepDetector.MIN_STEP_INTERVAL_NANOS);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.mobigait.gait;
+
+/**
+ * Generates an idealised accelerometer and gyroscope trace of someone walking with the
+ * phone upright: a sinusoid around gravity on the y axis, one cycle per step.
+ */
+public final class SyntheticWalk {
+    public static final float SAMPLE_HZ = 100f;
+    private static final float GRAVITY = 9.80665f;
+
+    private SyntheticWalk() {
+    }
+
+    /**
+     * Emit {@code seconds} of walking at {@code stepsPerSecond}, followed by
+     * {@code restSeconds} of standing still, starting at {@code startNanos}.
+     *
+     * @return the number of samples emitted
+     */
+    public static long generate(RawSessionReader.SampleListener target, long startNanos,
+                                double seconds, double stepsPerSecond, double restSeconds) {
+        long periodNanos = (long) (1e9 / SAMPLE_HZ);
+        int walkSamples = (int) (seconds * SAMPLE_HZ);
+        int restSamples = (int) (restSeconds * SAMPLE_HZ);
+        long emitted = 0;
+
+        for (int i = 0; i < walkSamples + restSamples; i++) {
+            long t = startNanos + i * periodNanos;
+            double phase = 2 * Math.PI * stepsPerSecond * i / SAMPLE_HZ;
+            float bounce = i < walkSamples ? (float) (3.0 * Math.sin(phase)) : 0f;
+            float sway = i < walkSamples ? (float) (0.5 * Math.cos(phase / 2)) : 0f;
+
+            target.onSample(GaitEngine.TYPE_ACCELEROMETER, t, sway, GRAVITY + bounce, 0.2f * bounce);
+            target.onSample(GaitEngine.TYPE_GYROSCOPE, t + periodNanos / 2, 0.1f * bounce, sway, 0f);
+            emitted += 2;
+        }
+        return emitted;
+    }
+}
@@ -22,3 +22,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "MobiGait"
 include(":app")
+include(":gait-engine")
+include(":benchmark")